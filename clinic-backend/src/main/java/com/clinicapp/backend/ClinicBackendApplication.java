@@ -8,8 +8,10 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.password.PasswordEncoder;
 @SpringBootApplication
+@EnableScheduling // Runs the @Scheduled maintenance jobs (notification cleanup, dashboard counter reconciliation)
 @RequiredArgsConstructor // Add for dependency injection
 public class ClinicBackendApplication {
 
@@ -1,6 +1,8 @@
 package com.clinicapp.backend.config;
 
+import com.clinicapp.backend.service.security.AuthenticatedPrincipalCache;
 import com.clinicapp.backend.service.security.JwtService;
+import com.clinicapp.backend.service.security.ValidatedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +25,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService; // Spring Security's UserDetailsService
+    private final AuthenticatedPrincipalCache principalCache; // Skips parsing and user lookup for tokens seen before
 
     @Override
     protected void doFilterInternal(
@@ -33,7 +36,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail; // Change variable name for clarity
 
         // 1. Check if Authorization header exists and starts with "Bearer "
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -44,29 +46,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // 2. Extract JWT token (remove "Bearer ")
         jwt = authHeader.substring(7);
 
+        // Only resolving the authentication is guarded; exceptions from the rest of the chain must propagate
         try {
-            // 3. Extract user email from JWT (assuming JwtService is updated or already does this)
-            userEmail = jwtService.extractUsername(jwt); // Keep using extractUsername, but ensure it returns email
+            // 3. A token validated before resolves straight from the cache
+            UserDetails cachedUserDetails = principalCache.get(jwt);
+            if (cachedUserDetails != null) {
+                if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                    authenticate(cachedUserDetails, request);
+                }
+            } else {
+                // 4. Parse and verify the JWT once; throws if it is malformed, tampered with or expired
+                ValidatedToken token = jwtService.validate(jwt);
+                String userEmail = token.getSubject(); // The subject is the user's email
 
-            // 4. Check if email exists and user is not already authenticated
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // 5. Load UserDetails from the database using the email
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail); // Pass email here
+                // 5. Check if email exists and user is not already authenticated
+                if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    // 6. Load UserDetails from the database using the email
+                    UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail); // Pass email here
 
-                // 6. Validate the token
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    // 7. Create authentication token
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null, // Credentials are not needed as we use JWT
-                            userDetails.getAuthorities()
-                    );
-                    // 8. Set details from the request
-                    authToken.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request)
-                    );
-                    // 9. Update SecurityContextHolder
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                    // 7. Check the token belongs to that user
+                    if (jwtService.isTokenValid(token, userDetails)) {
+                        principalCache.put(jwt, userDetails, token.getExpiration());
+                        authenticate(userDetails, request);
+                    }
                 }
             }
         } catch (Exception e) {
@@ -76,8 +78,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             SecurityContextHolder.clearContext();
         }
 
-
-        // 10. Continue the filter chain
+        // 8. Continue the filter chain, exactly once whether the token was cached or not
         filterChain.doFilter(request, response);
     }
+
+    private void authenticate(UserDetails userDetails, HttpServletRequest request) {
+        // Create authentication token
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null, // Credentials are not needed as we use JWT
+                userDetails.getAuthorities()
+        );
+        // Set details from the request
+        authToken.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request)
+        );
+        // Update SecurityContextHolder
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.clinicapp.backend.config;
+
+import com.clinicapp.backend.model.core.Appointment;
+import com.clinicapp.backend.model.notification.Notification;
+import com.clinicapp.backend.repository.core.AppointmentRepository;
+import com.clinicapp.backend.repository.notification.NotificationRepository;
+import com.clinicapp.backend.service.utils.SequenceAligner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * One {@link SequenceAligner} per entity whose id moved from IDENTITY to a pooled sequence.
+ * Each bean takes the entity's repository so it is created after the schema update has run.
+ */
+@Configuration
+public class SequenceAlignerConfig {
+
+    @Bean(initMethod = "align")
+    public SequenceAligner appointmentSequenceAligner(JdbcTemplate jdbcTemplate, AppointmentRepository appointmentRepository) {
+        return new SequenceAligner(jdbcTemplate, "appointment_seq", "appointment", Appointment.ID_ALLOCATION_SIZE);
+    }
+
+    @Bean(initMethod = "align")
+    public SequenceAligner notificationSequenceAligner(JdbcTemplate jdbcTemplate, NotificationRepository notificationRepository) {
+        return new SequenceAligner(jdbcTemplate, "notifications_seq", "notifications", Notification.ID_ALLOCATION_SIZE);
+    }
+}
@@ -1,6 +1,7 @@
 package com.clinicapp.backend.config;
 
 import com.clinicapp.backend.service.security.JwtService;
+import com.clinicapp.backend.service.security.ValidatedToken;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.Message;
@@ -45,10 +46,11 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
             if (authToken != null) {
                 try {
-                    String userEmail = jwtService.extractUsername(authToken); // Extracts email (subject)
+                    ValidatedToken token = jwtService.validate(authToken); // Parses and verifies once
+                    String userEmail = token.getSubject(); // Email (subject)
                     if (userEmail != null) {
                         UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail); // Load by email
-                        if (jwtService.isTokenValid(authToken, userDetails)) {
+                        if (jwtService.isTokenValid(token, userDetails)) {
                             // Create authentication token
                             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                                     userDetails, null, userDetails.getAuthorities());
@@ -0,0 +1,104 @@
+package com.clinicapp.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics for the STOMP client channels and sessions.
+ * <p>
+ * Per channel ({@code inbound}/{@code outbound}): {@code websocket.channel.queue.depth} and
+ * {@code websocket.channel.active} gauges, and the {@code websocket.channel.latency} timer from a
+ * message being handed to the channel until its handler finished, including time spent queued.
+ * {@code websocket.sessions.evicted} counts sessions closed for exceeding the send time or buffer limit.
+ */
+@Component
+@Slf4j
+public class WebSocketChannelMetrics implements WebSocketHandlerDecoratorFactory {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter evictedSessions;
+
+    public WebSocketChannelMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.evictedSessions = Counter.builder("websocket.sessions.evicted")
+                .description("Sessions closed because the client could not keep up with outbound messages")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates a fixed-size channel executor whose queue depth, active threads and task latency are recorded.
+     * Saturation makes the sending thread run the task itself rather than dropping the message;
+     * WebSocketConfig preserves per-session order on both channels, so this can't reorder a session's messages.
+     */
+    public ThreadPoolTaskExecutor channelExecutor(String channel, int threads, int queueCapacity) {
+        Timer latency = Timer.builder("websocket.channel.latency")
+                .description("Time from a message being sent to the channel until it was handled")
+                .tag("channel", channel)
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ws-" + channel + "-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        // Decorated on the sending thread, so the recorded time includes the wait in the queue
+        executor.setTaskDecorator(task -> {
+            long submitted = System.nanoTime();
+            return () -> {
+                try {
+                    task.run();
+                } finally {
+                    latency.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                }
+            };
+        });
+
+        Gauge.builder("websocket.channel.queue.depth", executor, e -> pool(e) != null ? pool(e).getQueue().size() : 0)
+                .description("Messages waiting for a channel thread")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Channel threads currently handling a message")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        return executor;
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                // ConcurrentWebSocketSessionDecorator closes with SESSION_NOT_RELIABLE when a client
+                // exceeds the send time limit or the send buffer size limit
+                if (CloseStatus.SESSION_NOT_RELIABLE.equals(closeStatus)) {
+                    evictedSessions.increment();
+                    log.warn("Evicted slow WebSocket session {}", session.getId());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private static ThreadPoolExecutor pool(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor();
+        } catch (IllegalStateException e) {
+            return null; // Not initialized yet
+        }
+    }
+}
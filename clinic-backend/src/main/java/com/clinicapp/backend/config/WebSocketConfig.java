@@ -1,12 +1,15 @@
 package com.clinicapp.backend.config;
 
 import lombok.RequiredArgsConstructor; // Import RequiredArgsConstructor
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration; // Import ChannelRegistration
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
@@ -14,16 +17,77 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final WebSocketAuthInterceptor webSocketAuthInterceptor; // Inject the interceptor
+    private final WebSocketChannelMetrics webSocketChannelMetrics;
+
+    // "simple" keeps the in-memory broker (single node only); "relay" forwards to an external STOMP
+    // broker such as RabbitMQ or ActiveMQ Artemis so every backend node sees every message
+    @Value("${application.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${application.websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${application.websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${application.websocket.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${application.websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${application.websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    // Dedicated, bounded thread pools for messages from clients (inbound) and to clients (outbound)
+    @Value("${application.websocket.inbound.threads:8}")
+    private int inboundThreads;
+
+    @Value("${application.websocket.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${application.websocket.outbound.threads:8}")
+    private int outboundThreads;
+
+    @Value("${application.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    // A session that can't take a message within this time, or lets this many bytes pile up, is closed
+    @Value("${application.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${application.websocket.send-buffer-size-limit-bytes:524288}")
+    private int sendBufferSizeLimitBytes;
+
+    @Value("${application.websocket.message-size-limit-bytes:65536}")
+    private int messageSizeLimitBytes;
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Configure the message broker options
 
-        // Enable a simple in-memory message broker to carry messages back to the client
-        // on destinations prefixed with "/topic" and "/queue"
+        // Carry messages back to the client on destinations prefixed with "/topic" and "/queue",
+        // through an external STOMP broker in relay mode or a simple in-memory broker otherwise
         // "/topic" is typically used for publish-subscribe (one-to-many)
         // "/queue" is typically used for point-to-point (one-to-one) messaging
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // Share connected users between nodes, so convertAndSendToUser() reaches a user
+                    // connected to any node; messages for users no node knows yet are broadcast
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");
+        }
 
         // Designates the "/app" prefix for messages that are bound for
         // @MessageMapping-annotated methods in controllers.
@@ -33,6 +97,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Configure the prefix used for user-specific destinations (e.g., for private messages)
         // Allows sending messages directly to a user's queue like "/user/queue/reply"
         config.setUserDestinationPrefix("/user");
+
+        // Hand messages for each session to the outbound pool one at a time, so a saturated pool
+        // running a send on the caller's thread can't overtake one still queued for that session
+        config.setPreservePublishOrder(true);
     }
 
     @Override
@@ -44,11 +112,30 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*") // TODO: Restrict origins in production!
                 .withSockJS();
+        // Likewise for frames from each client: a SUBSCRIBE, SEND or UNSUBSCRIBE handled on the Tomcat
+        // thread when the inbound pool is saturated must not overtake the session's queued frames
+        registry.setPreserveReceiveOrder(true);
     }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         // Register our custom interceptor to handle authentication
         registration.interceptors(webSocketAuthInterceptor);
+        registration.taskExecutor(webSocketChannelMetrics.channelExecutor("inbound", inboundThreads, inboundQueueCapacity));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(webSocketChannelMetrics.channelExecutor("outbound", outboundThreads, outboundQueueCapacity));
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Slow-consumer protection: sends to a session are buffered up to these limits, after which
+        // the session is closed instead of holding an outbound thread and growing the buffer
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimitBytes)
+                .setMessageSizeLimit(messageSizeLimitBytes)
+                .addDecoratorFactory(webSocketChannelMetrics);
     }
 }
\ No newline at end of file
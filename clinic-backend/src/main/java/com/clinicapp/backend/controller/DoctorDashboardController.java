@@ -1,6 +1,6 @@
 package com.clinicapp.backend.controller;
 
-import com.clinicapp.backend.model.core.Appointment;
+import com.clinicapp.backend.dto.core.AppointmentDTO;
 import com.clinicapp.backend.model.security.User;
 import com.clinicapp.backend.service.DashboardService;
 import com.clinicapp.backend.service.core.AppointmentService;
@@ -43,9 +43,9 @@ public class DoctorDashboardController {
 
     // Endpoint for today's appointments list
     @GetMapping("/today-appointments")
-    public ResponseEntity<List<Appointment>> getTodayAppointments(@AuthenticationPrincipal User currentUser) {
+    public ResponseEntity<List<AppointmentDTO>> getTodayAppointments(@AuthenticationPrincipal User currentUser) {
         // Assuming AppointmentService has a method like getAppointmentsForDoctorOnDate
-        List<Appointment> appointments = appointmentService.getAppointmentsForDoctorOnDate(currentUser.getId(), LocalDate.now());
+        List<AppointmentDTO> appointments = appointmentService.getAppointmentsForDoctorOnDate(currentUser.getId(), LocalDate.now());
         return ResponseEntity.ok(appointments);
     }
 
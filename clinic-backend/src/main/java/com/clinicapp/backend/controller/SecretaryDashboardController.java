@@ -1,6 +1,6 @@
 package com.clinicapp.backend.controller;
 
-import com.clinicapp.backend.model.core.Appointment;
+import com.clinicapp.backend.dto.core.AppointmentDTO;
 import com.clinicapp.backend.model.security.User;
 import com.clinicapp.backend.service.DashboardService;
 import com.clinicapp.backend.service.core.AppointmentService; // Use core service
@@ -41,10 +41,10 @@ public class SecretaryDashboardController {
 
     // Endpoint for today's appointments list (similar to doctor's, but maybe fetched differently if needed)
     @GetMapping("/today-appointments")
-    public ResponseEntity<List<Appointment>> getTodayAppointments(@AuthenticationPrincipal User currentUser) {
+    public ResponseEntity<List<AppointmentDTO>> getTodayAppointments(@AuthenticationPrincipal User currentUser) {
         // For now, fetch all appointments for today. Could be refined.
         // Assuming AppointmentService has a method like getAppointmentsForDate
-        List<Appointment> appointments = appointmentService.getAppointmentsForDate(LocalDate.now());
+        List<AppointmentDTO> appointments = appointmentService.getAppointmentsForDate(LocalDate.now());
         return ResponseEntity.ok(appointments);
     }
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.clinicapp.backend.controller.chat;
 
 import com.clinicapp.backend.model.chat.ChatMessage;
+import com.clinicapp.backend.service.chat.ChatLog;
+import com.clinicapp.backend.service.chat.PresenceRegistry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
@@ -13,18 +17,22 @@ import java.security.Principal;
 import java.time.Instant;
 
 @Controller
+@ConditionalOnProperty(name = "application.chat.enabled", havingValue = "true", matchIfMissing = true)
 @RequiredArgsConstructor
+@Slf4j
 public class ChatController {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final ChatLog chatLog;
+    private final PresenceRegistry presenceRegistry;
 
     /**
      * Handles messages sent to /app/chat.public
-     * Broadcasts the message to all subscribers of /topic/public
+     * Stores the message in the chat log, then broadcasts it (with its log offset) to all subscribers of /topic/public
+     * once it is durable; the broadcast runs on the chat log's completer thread, not the flusher
      */
     @MessageMapping("/chat.public")
-    @SendTo("/topic/public")
-    public ChatMessage handlePublicMessage(
+    public void handlePublicMessage(
             @Payload ChatMessage chatMessage,
             SimpMessageHeaderAccessor headerAccessor,
             Principal principal
@@ -39,12 +47,20 @@ public class ChatController {
             chatMessage.setTimestamp(Instant.now());
         }
 
-        return chatMessage;
+        chatLog.append(ChatLog.PUBLIC_CONVERSATION, chatMessage).whenComplete((stored, error) -> {
+            if (error != null) {
+                // Still deliver the message; it just won't be in the history
+                log.error("Could not store public chat message from '{}'", chatMessage.getSender(), error);
+                messagingTemplate.convertAndSend("/topic/public", chatMessage);
+            } else {
+                messagingTemplate.convertAndSend("/topic/public", stored);
+            }
+        });
     }
 
     /**
      * Handles messages sent to /app/chat.private
-     * Sends the message to the specific user's private queue
+     * Stores the message in the chat log, then sends it to the specific user's private queue
      */
     @MessageMapping("/chat.private")
     public void handlePrivateMessage(
@@ -66,19 +82,31 @@ public class ChatController {
             throw new IllegalArgumentException("Recipient is required for private messages");
         }
 
-        // Send to the recipient's private queue
-        messagingTemplate.convertAndSendToUser(
-                chatMessage.getRecipient(),
-                "/queue/private",
-                chatMessage
-        );
+        String conversation = ChatLog.privateConversation(principal.getName(), chatMessage.getRecipient());
+        chatLog.append(conversation, chatMessage).whenComplete((stored, error) -> {
+            Object payload = stored;
+            if (error != null) {
+                // Still deliver the message; it just won't be in the history
+                log.error("Could not store private chat message from '{}'", chatMessage.getSender(), error);
+                payload = chatMessage;
+            }
+
+            // Send to the recipient's private queue; an offline recipient reads it from the history instead
+            if (presenceRegistry.isOnline(chatMessage.getRecipient())) {
+                messagingTemplate.convertAndSendToUser(
+                        chatMessage.getRecipient(),
+                        "/queue/private",
+                        payload
+                );
+            }
 
-        // Also send a copy to the sender's queue (so they can see their sent messages)
-        messagingTemplate.convertAndSendToUser(
-                principal.getName(),
-                "/queue/private",
-                chatMessage
-        );
+            // Also send a copy to the sender's queue (so they can see their sent messages)
+            messagingTemplate.convertAndSendToUser(
+                    principal.getName(),
+                    "/queue/private",
+                    payload
+            );
+        });
     }
 
     /**
@@ -0,0 +1,58 @@
+package com.clinicapp.backend.controller.chat;
+
+import com.clinicapp.backend.dto.chat.StoredChatMessageDTO;
+import com.clinicapp.backend.service.chat.ChatLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Chat history from the chat log. Without {@code after} the latest {@code limit} messages are
+ * returned; with it, the messages following that offset, so a reconnecting client can replay
+ * exactly what it missed.
+ */
+@RestController
+@ConditionalOnProperty(name = "application.chat.enabled", havingValue = "true", matchIfMissing = true)
+@RequestMapping("/api/v1/chat/history")
+@RequiredArgsConstructor
+public class ChatHistoryController {
+
+    private static final int MAX_LIMIT = 500;
+
+    private final ChatLog chatLog;
+
+    @GetMapping("/public")
+    public ResponseEntity<List<StoredChatMessageDTO>> getPublicHistory(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) Long after
+    ) {
+        return ResponseEntity.ok(history(ChatLog.PUBLIC_CONVERSATION, limit, after));
+    }
+
+    /**
+     * The conversation between the authenticated user and {@code username}.
+     */
+    @GetMapping("/private/{username}")
+    public ResponseEntity<List<StoredChatMessageDTO>> getPrivateHistory(
+            @PathVariable String username,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) Long after,
+            Principal principal
+    ) {
+        String conversation = ChatLog.privateConversation(principal.getName(), username);
+        return ResponseEntity.ok(history(conversation, limit, after));
+    }
+
+    private List<StoredChatMessageDTO> history(String conversation, int limit, Long after) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        return after != null ? chatLog.after(conversation, after, limit) : chatLog.latest(conversation, limit);
+    }
+}
@@ -0,0 +1,36 @@
+package com.clinicapp.backend.controller.chat;
+
+import com.clinicapp.backend.dto.chat.PresenceDTO;
+import com.clinicapp.backend.service.chat.PresenceRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Set;
+
+/**
+ * Who is connected to the chat, for showing online indicators.
+ */
+@RestController
+@RequestMapping("/api/v1/chat/presence")
+@RequiredArgsConstructor
+public class ChatPresenceController {
+
+    private final PresenceRegistry presenceRegistry;
+
+    /**
+     * Usernames of all users with an open WebSocket session.
+     */
+    @GetMapping
+    public ResponseEntity<Set<String>> getOnlineUsers() {
+        return ResponseEntity.ok(presenceRegistry.onlineUsers());
+    }
+
+    @GetMapping("/{username}")
+    public ResponseEntity<PresenceDTO> getPresence(@PathVariable String username) {
+        return ResponseEntity.ok(PresenceDTO.builder()
+                .username(username)
+                .online(presenceRegistry.isOnline(username))
+                .build());
+    }
+}
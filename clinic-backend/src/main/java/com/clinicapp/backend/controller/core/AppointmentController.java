@@ -1,16 +1,23 @@
 package com.clinicapp.backend.controller.core;
 
 import com.clinicapp.backend.dto.core.AppointmentDTO;
+import com.clinicapp.backend.dto.core.AppointmentSeriesDTO;
+import com.clinicapp.backend.dto.core.AppointmentSeriesResultDTO;
+import com.clinicapp.backend.dto.core.FreeSlotDTO;
+import com.clinicapp.backend.service.core.AppointmentAvailabilityService;
 import com.clinicapp.backend.service.core.AppointmentService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize; // Import PreAuthorize
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -20,6 +27,7 @@ import java.util.List;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final AppointmentAvailabilityService availabilityService;
 
     // Allow all authenticated roles to view lists/specific appointments
     @GetMapping
@@ -66,6 +74,25 @@ public class AppointmentController {
          }
      }
 
+     // Next free windows of the given length across one or more doctors, answered from memory on a single node
+     @GetMapping("/free-slots")
+     @PreAuthorize("hasAnyRole('ADMIN', 'SECRETARY', 'DOCTOR')")
+     public ResponseEntity<List<FreeSlotDTO>> findFreeSlots(
+             @RequestParam List<Long> doctorIds,
+             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+             @RequestParam(defaultValue = "30") int durationMinutes,
+             @RequestParam(defaultValue = "15") int stepMinutes,
+             @RequestParam(defaultValue = "10") int limit
+     ) {
+         try {
+             return ResponseEntity.ok(availabilityService.findFreeSlots(doctorIds, from, to, durationMinutes, stepMinutes, limit));
+         } catch (IllegalArgumentException e) {
+             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+         } catch (IllegalStateException e) {
+             throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e); // Index still loading
+         }
+     }
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'SECRETARY')") // Only Admin/Secretary can create
@@ -83,6 +110,22 @@ public class AppointmentController {
         }
     }
 
+    // Book a recurring series in one call; conflicting dates are skipped and reported
+    @PostMapping("/series")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SECRETARY')")
+    public ResponseEntity<AppointmentSeriesResultDTO> createAppointmentSeries(@Valid @RequestBody AppointmentSeriesDTO seriesDTO) {
+        try {
+            AppointmentSeriesResultDTO result = appointmentService.createAppointmentSeries(seriesDTO);
+            // Nothing booked means every date conflicted; the body still lists the conflicts
+            HttpStatus status = result.getBooked().isEmpty() ? HttpStatus.CONFLICT : HttpStatus.CREATED;
+            return ResponseEntity.status(status).body(result);
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e); // Patient or Doctor not found
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'SECRETARY')") // Only Admin/Secretary can update
     public ResponseEntity<AppointmentDTO> updateAppointment(@PathVariable Long id, @Valid @RequestBody AppointmentDTO appointmentDTO) {
@@ -94,6 +137,8 @@ public class AppointmentController {
         } catch (IllegalArgumentException | IllegalStateException e) {
             // Handles validation errors (timing, conflicts, non-doctor user, updating completed/cancelled)
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Appointment was modified by someone else; reload and retry.", e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error updating appointment", e);
         }
@@ -110,6 +155,8 @@ public class AppointmentController {
          } catch (IllegalArgumentException | IllegalStateException e) {
              // Handles already cancelled/completed or cancellation window violation
              throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+         } catch (OptimisticLockingFailureException e) {
+             throw new ResponseStatusException(HttpStatus.CONFLICT, "Appointment was modified by someone else; reload and retry.", e);
          } catch (Exception e) {
              throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error cancelling appointment", e);
          }
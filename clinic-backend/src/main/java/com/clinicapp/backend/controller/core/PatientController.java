@@ -1,15 +1,23 @@
 package com.clinicapp.backend.controller.core;
 
+import com.clinicapp.backend.dto.core.KeysetPageDTO;
 import com.clinicapp.backend.dto.core.PatientDTO;
+import com.clinicapp.backend.dto.core.PatientSummaryDTO;
 import com.clinicapp.backend.service.core.PatientService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -18,7 +26,12 @@ import java.util.List;
 // TODO: Add role-based security annotations (e.g., @PreAuthorize) later
 public class PatientController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SEARCH_LIMIT = 50;
+    private static final String NDJSON = "application/x-ndjson";
+
     private final PatientService patientService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public ResponseEntity<List<PatientDTO>> getAllPatients() {
@@ -26,6 +39,57 @@ public class PatientController {
         return ResponseEntity.ok(patients);
     }
 
+    /**
+     * Keyset-paginated patient summaries. Pass the returned nextCursor as {@code cursor} for the next page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPageDTO<PatientSummaryDTO>> getPatientPage(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return ResponseEntity.ok(patientService.getPatientSummaries(cursor, size));
+    }
+
+    /**
+     * Ranked patient search by name, phone number or email. Partial and slightly misspelt input still matches.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<PatientSummaryDTO>> searchPatients(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q must not be blank");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        return ResponseEntity.ok(patientService.searchPatients(query, limit));
+    }
+
+    /**
+     * All patient summaries as newline-delimited JSON, written as they are read from the database.
+     */
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamPatients() {
+        StreamingResponseBody body = outputStream -> {
+            SequenceWriter writer = objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream);
+            patientService.streamPatientSummaries(summary -> {
+                try {
+                    writer.write(summary);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // Client went away; abort the stream
+                }
+            });
+            writer.flush();
+            outputStream.write('\n');
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<PatientDTO> getPatientById(@PathVariable Long id) {
         try {
@@ -1,18 +1,22 @@
 package com.clinicapp.backend.controller.notification;
 
 import com.clinicapp.backend.dto.notification.NotificationDTO;
+import com.clinicapp.backend.dto.notification.NotificationTemplate;
 import com.clinicapp.backend.model.notification.Notification;
 import com.clinicapp.backend.model.security.User;
 import com.clinicapp.backend.service.notification.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.security.Principal;
 import java.time.Instant;
@@ -137,6 +141,25 @@ public class NotificationController {
         messagingTemplate.convertAndSend("/topic/notifications", notificationDTO);
     }
 
+    /**
+     * Send an announcement to every user as a stored notification.
+     * Returns the number of users notified.
+     */
+    @PostMapping("/announcements")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Integer> announce(@RequestBody NotificationTemplate template) {
+        if (template.getTitle() == null || template.getMessage() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Title and message are required");
+        }
+        if (template.getType() == null) {
+            template.setType(Notification.NotificationType.SYSTEM_NOTIFICATION);
+        }
+        if (template.getReferenceType() == null) {
+            template.setReferenceType("ANNOUNCEMENT");
+        }
+        return ResponseEntity.ok(notificationService.announceToAllUsers(template));
+    }
+
     /**
      * Test endpoint to send a notification to a specific user
      * This is for testing only and should be removed in production
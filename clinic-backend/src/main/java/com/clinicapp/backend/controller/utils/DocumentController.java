@@ -1,20 +1,32 @@
 package com.clinicapp.backend.controller.utils;
 
 import com.clinicapp.backend.model.core.Invoice;
+import com.clinicapp.backend.model.core.InvoiceStatus;
 import com.clinicapp.backend.model.core.Prescription;
 import com.clinicapp.backend.repository.core.InvoiceRepository;
 import com.clinicapp.backend.repository.core.PrescriptionRepository;
+import com.clinicapp.backend.service.core.MedicalRecordService;
+import com.clinicapp.backend.service.utils.DocumentCache;
+import com.clinicapp.backend.service.utils.DocumentExportService;
 import com.clinicapp.backend.service.utils.PdfGenerationService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/v1/documents") // Base path for document generation
@@ -24,25 +36,30 @@ public class DocumentController {
     private final PdfGenerationService pdfGenerationService;
     private final PrescriptionRepository prescriptionRepository;
     private final InvoiceRepository invoiceRepository;
+    private final DocumentExportService documentExportService;
+    private final DocumentCache documentCache;
+    private final MedicalRecordService medicalRecordService;
 
     @GetMapping("/prescriptions/{id}/pdf")
-    public ResponseEntity<byte[]> downloadPrescriptionPdf(@PathVariable Long id) {
+    public ResponseEntity<byte[]> downloadPrescriptionPdf(@PathVariable Long id, WebRequest webRequest) {
         try {
-            Prescription prescription = prescriptionRepository.findById(id)
+            LocalDateTime version = prescriptionRepository.findVersionById(id)
                     .orElseThrow(() -> new EntityNotFoundException("Prescription not found with id: " + id));
+            DocumentCache.DocumentKey key = new DocumentCache.DocumentKey(DocumentCache.DocumentType.PRESCRIPTION, id, version);
+            if (webRequest.checkNotModified(key.etag())) {
+                return null; // 304 Not Modified; the client's copy is current
+            }
 
-            byte[] pdfBytes = pdfGenerationService.generatePrescriptionPdf(prescription);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            // Suggest a filename for the download
-            String filename = String.format("prescription_%d_patient_%d.pdf",
-                                            prescription.getId(),
-                                            prescription.getPatient().getId());
-            headers.setContentDispositionFormData("attachment", filename); // Use "attachment" to force download
-            headers.setContentLength(pdfBytes.length);
-
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+            DocumentCache.RenderedDocument document = documentCache.get(key, () -> {
+                Prescription prescription = prescriptionRepository.findForDocumentById(id)
+                        .orElseThrow(() -> new EntityNotFoundException("Prescription not found with id: " + id));
+                // Suggest a filename for the download
+                String filename = String.format("prescription_%d_patient_%d.pdf",
+                                                prescription.getId(),
+                                                prescription.getPatient().getId());
+                return new DocumentCache.RenderedDocument(filename, pdfGenerationService.generatePrescriptionPdf(prescription));
+            });
+            return pdfResponse(document, key);
 
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
@@ -53,22 +70,24 @@ public class DocumentController {
     }
 
     @GetMapping("/invoices/{id}/pdf")
-    public ResponseEntity<byte[]> downloadInvoicePdf(@PathVariable Long id) {
+    public ResponseEntity<byte[]> downloadInvoicePdf(@PathVariable Long id, WebRequest webRequest) {
          try {
-             Invoice invoice = invoiceRepository.findById(id)
+             LocalDateTime version = invoiceRepository.findVersionById(id)
                      .orElseThrow(() -> new EntityNotFoundException("Invoice not found with id: " + id));
+             DocumentCache.DocumentKey key = new DocumentCache.DocumentKey(DocumentCache.DocumentType.INVOICE, id, version);
+             if (webRequest.checkNotModified(key.etag())) {
+                 return null; // 304 Not Modified; the client's copy is current
+             }
 
-             byte[] pdfBytes = pdfGenerationService.generateInvoicePdf(invoice);
-
-             HttpHeaders headers = new HttpHeaders();
-             headers.setContentType(MediaType.APPLICATION_PDF);
-             String filename = String.format("invoice_%d_patient_%d.pdf",
-                                             invoice.getId(),
-                                             invoice.getPatient().getId());
-             headers.setContentDispositionFormData("attachment", filename);
-             headers.setContentLength(pdfBytes.length);
-
-             return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+             DocumentCache.RenderedDocument document = documentCache.get(key, () -> {
+                 Invoice invoice = invoiceRepository.findForDocumentById(id)
+                         .orElseThrow(() -> new EntityNotFoundException("Invoice not found with id: " + id));
+                 String filename = String.format("invoice_%d_patient_%d.pdf",
+                                                 invoice.getId(),
+                                                 invoice.getPatient().getId());
+                 return new DocumentCache.RenderedDocument(filename, pdfGenerationService.generateInvoicePdf(invoice));
+             });
+             return pdfResponse(document, key);
 
          } catch (EntityNotFoundException e) {
              throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
@@ -77,4 +96,57 @@ public class DocumentController {
              throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error generating invoice PDF", e);
          }
     }
-}
\ No newline at end of file
+
+    /**
+     * Streams a patient's full medical record (appointments, prescriptions and invoices) as one PDF,
+     * written straight to the response.
+     */
+    @GetMapping("/patients/{id}/medical-record/pdf")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
+    public ResponseEntity<StreamingResponseBody> downloadMedicalRecordPdf(@PathVariable Long id) {
+        if (!medicalRecordService.patientExists(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found with id: " + id);
+        }
+        StreamingResponseBody body = outputStream -> medicalRecordService.writeMedicalRecordPdf(id, outputStream);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(String.format("medical_record_patient_%d.pdf", id)).build());
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Streams the PDFs of all invoices issued within a date range (inclusive) as one ZIP archive,
+     * optionally only those with the given status.
+     */
+    @GetMapping("/invoices/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SECRETARY')") // Billing staff only
+    public ResponseEntity<StreamingResponseBody> exportInvoicePdfs(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) InvoiceStatus status) {
+        if (endDate.isBefore(startDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "endDate must not be before startDate");
+        }
+        StreamingResponseBody body = outputStream ->
+                documentExportService.exportInvoices(startDate, endDate, status, outputStream);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        String filename = String.format("invoices_%s_%s.zip", startDate, endDate);
+        headers.setContentDisposition(ContentDisposition.attachment().filename(filename).build());
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    private static ResponseEntity<byte[]> pdfResponse(DocumentCache.RenderedDocument document, DocumentCache.DocumentKey key) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", document.filename()); // Use "attachment" to force download
+        headers.setContentLength(document.content().length);
+        headers.setETag(key.etag());
+        // Patient data: browsers may keep a private copy but must revalidate it with If-None-Match
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+        return new ResponseEntity<>(document.content(), headers, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,37 @@
+package com.clinicapp.backend.dto.chat;
+
+import com.clinicapp.backend.model.chat.ChatMessage;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A chat message as stored in the chat log. {@code offset} is its position in the log; clients
+ * pass the last offset they have seen to fetch only newer messages after reconnecting.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredChatMessageDTO {
+    private long offset;
+    private ChatMessage.MessageType type;
+    private String content;
+    private String sender;
+    private String recipient;
+    private Instant timestamp;
+
+    public static StoredChatMessageDTO of(long offset, ChatMessage message) {
+        return StoredChatMessageDTO.builder()
+                .offset(offset)
+                .type(message.getType())
+                .content(message.getContent())
+                .sender(message.getSender())
+                .recipient(message.getRecipient())
+                .timestamp(message.getTimestamp())
+                .build();
+    }
+}
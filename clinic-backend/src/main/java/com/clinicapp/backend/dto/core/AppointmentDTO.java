@@ -53,4 +53,7 @@ public class AppointmentDTO {
     // Timestamps (usually not needed in request DTOs, but useful in responses)
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    // Version the client last saw; an update against a newer version is rejected
+    private Long version;
 }
\ No newline at end of file
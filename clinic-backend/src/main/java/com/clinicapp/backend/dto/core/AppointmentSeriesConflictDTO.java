@@ -0,0 +1,26 @@
+package com.clinicapp.backend.dto.core;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An occurrence of a series that was not booked, and the existing appointment it clashes with.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSeriesConflictDTO {
+
+    public enum Reason {
+        DOCTOR_BUSY, // The doctor has an overlapping appointment
+        PATIENT_BOOKED // The patient already has an appointment that day
+    }
+
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Reason reason;
+    private Long conflictingAppointmentId;
+}
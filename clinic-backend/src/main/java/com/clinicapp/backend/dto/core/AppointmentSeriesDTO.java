@@ -0,0 +1,60 @@
+package com.clinicapp.backend.dto.core;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * A recurring appointment, e.g. weekly physiotherapy or dialysis three times a week.
+ * <p>
+ * {@code startTime}/{@code endTime} describe the first occurrence; later occurrences keep its
+ * time of day and length. They fall on {@code daysOfWeek} (the first occurrence's weekday if
+ * empty) of every {@code intervalWeeks}-th week, until {@code occurrences} have been generated.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSeriesDTO {
+
+    public static final int MAX_OCCURRENCES = 200;
+
+    @NotNull(message = "Patient ID cannot be null")
+    private Long patientId;
+
+    @NotNull(message = "Doctor ID cannot be null")
+    private Long doctorId;
+
+    @NotNull(message = "Appointment start time cannot be null")
+    @Future(message = "Appointment must be in the future")
+    private LocalDateTime startTime;
+
+    @NotNull(message = "Appointment end time cannot be null")
+    @Future(message = "Appointment must be in the future")
+    private LocalDateTime endTime;
+
+    @NotBlank(message = "Room cannot be blank")
+    private String room;
+
+    private String notes;
+
+    private Set<DayOfWeek> daysOfWeek;
+
+    @Builder.Default
+    @Min(value = 1, message = "Interval must be at least one week")
+    private int intervalWeeks = 1;
+
+    @Min(value = 1, message = "A series needs at least one occurrence")
+    @Max(value = MAX_OCCURRENCES, message = "A series can have at most " + MAX_OCCURRENCES + " occurrences")
+    private int occurrences;
+}
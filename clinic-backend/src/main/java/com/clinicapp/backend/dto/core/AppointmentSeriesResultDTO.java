@@ -0,0 +1,21 @@
+package com.clinicapp.backend.dto.core;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a series booking: the appointments created and the occurrences skipped because of conflicts.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSeriesResultDTO {
+
+    private List<AppointmentDTO> booked;
+    private List<AppointmentSeriesConflictDTO> conflicts;
+}
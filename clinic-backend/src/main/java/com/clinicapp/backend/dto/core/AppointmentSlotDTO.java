@@ -0,0 +1,22 @@
+package com.clinicapp.backend.dto.core;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight projection of a scheduled appointment's time window,
+ * used to build in-memory schedule indexes without loading full entities.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSlotDTO {
+
+    private Long appointmentId;
+    private Long doctorId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
@@ -0,0 +1,20 @@
+package com.clinicapp.backend.dto.core;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A bookable time window for a doctor, as returned by the free-slot search.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeSlotDTO {
+
+    private Long doctorId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
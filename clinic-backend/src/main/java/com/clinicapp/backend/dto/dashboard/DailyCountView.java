@@ -0,0 +1,13 @@
+package com.clinicapp.backend.dto.dashboard;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of one row of a count grouped by calendar day.
+ */
+public interface DailyCountView {
+
+    LocalDate getDay();
+
+    long getTotal();
+}
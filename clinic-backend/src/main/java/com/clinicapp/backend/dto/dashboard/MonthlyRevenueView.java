@@ -0,0 +1,13 @@
+package com.clinicapp.backend.dto.dashboard;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of one row of the grouped monthly revenue query.
+ */
+public interface MonthlyRevenueView {
+
+    int getMonthOfYear(); // 1-12
+
+    BigDecimal getTotal();
+}
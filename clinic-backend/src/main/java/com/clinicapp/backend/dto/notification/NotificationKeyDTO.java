@@ -0,0 +1,19 @@
+package com.clinicapp.backend.dto.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A notification's keyset position, used to walk the table in batches without loading the rows.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationKeyDTO {
+
+    private Long id;
+    private Instant createdAt;
+}
@@ -0,0 +1,22 @@
+package com.clinicapp.backend.dto.notification;
+
+import com.clinicapp.backend.model.notification.Notification;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The recipient-independent part of a notification, used to send the same notification to many users.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationTemplate {
+    private Notification.NotificationType type;
+    private String title;
+    private String message;
+    private String referenceType; // e.g., "APPOINTMENT", "ANNOUNCEMENT"
+    private Long referenceId;
+}
@@ -0,0 +1,17 @@
+package com.clinicapp.backend.dto.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pushed on the notification queue whenever the user's unread count changes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnreadCountDTO {
+    private long unreadCount;
+}
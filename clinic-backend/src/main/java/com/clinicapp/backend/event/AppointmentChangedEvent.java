@@ -0,0 +1,40 @@
+package com.clinicapp.backend.event;
+
+import com.clinicapp.backend.model.core.Appointment;
+import com.clinicapp.backend.model.core.AppointmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by AppointmentService whenever an appointment is created, updated or cancelled.
+ * Carries the relevant state before and after the change so listeners can apply deltas.
+ */
+@Getter
+@AllArgsConstructor
+public class AppointmentChangedEvent {
+
+    private final Long appointmentId;
+    private final State previous; // null when the appointment was just created
+    private final State current; // null when the appointment was deleted
+
+    @Getter
+    @AllArgsConstructor
+    public static class State {
+        private final Long doctorId;
+        private final Long patientId;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final AppointmentStatus status;
+
+        public static State of(Appointment appointment) {
+            return new State(
+                    appointment.getDoctor().getId(),
+                    appointment.getPatient().getId(),
+                    appointment.getStartTime(),
+                    appointment.getEndTime(),
+                    appointment.getStatus());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.clinicapp.backend.event;
+
+import com.clinicapp.backend.model.core.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by InvoiceService whenever an invoice is created, updated or deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class InvoiceChangedEvent {
+
+    private final Long invoiceId;
+    private final InvoiceStatus previousStatus; // null when the invoice was just created
+    private final InvoiceStatus currentStatus; // null when the invoice was deleted
+}
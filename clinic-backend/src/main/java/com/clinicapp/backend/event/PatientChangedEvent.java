@@ -0,0 +1,21 @@
+package com.clinicapp.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by PatientService whenever a patient is created, updated or deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class PatientChangedEvent {
+
+    private final Long patientId;
+    private final ChangeType changeType;
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
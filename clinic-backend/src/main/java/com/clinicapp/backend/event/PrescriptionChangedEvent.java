@@ -0,0 +1,16 @@
+package com.clinicapp.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by PrescriptionService whenever a prescription is created, updated or deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class PrescriptionChangedEvent {
+
+    private final Long prescriptionId;
+    private final Long previousDoctorId; // null when the prescription was just created
+    private final Long currentDoctorId; // null when the prescription was deleted
+}
@@ -1,6 +1,8 @@
 package com.clinicapp.backend.event;
 
 import com.clinicapp.backend.model.chat.ChatMessage;
+import com.clinicapp.backend.service.chat.PresenceRegistry;
+import com.clinicapp.backend.service.notification.NotificationDispatcher;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,7 +12,9 @@ import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
 
+import java.security.Principal;
 import java.time.Instant;
 
 @Component
@@ -19,20 +23,42 @@ public class WebSocketEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(WebSocketEventListener.class);
 
+    private static final String NOTIFICATION_QUEUE = "/user/queue/notifications";
+
     private final SimpMessageSendingOperations messagingTemplate;
+    private final PresenceRegistry presenceRegistry;
+    private final NotificationDispatcher notificationDispatcher;
 
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
         logger.info("Received a new web socket connection");
         if (event.getUser() != null) {
             logger.info("WebSocket CONNECT principal: " + event.getUser().getName());
+            String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+            presenceRegistry.sessionConnected(event.getUser().getName(), sessionId);
         } else {
             logger.info("WebSocket CONNECT principal: null");
         }
     }
 
+    /**
+     * Flushes notifications held while the user was offline once they listen for notifications again.
+     */
+    @EventListener
+    public void handleWebSocketSubscribeListener(SessionSubscribeEvent event) {
+        Principal user = event.getUser();
+        String destination = StompHeaderAccessor.wrap(event.getMessage()).getDestination();
+        if (user != null && NOTIFICATION_QUEUE.equals(destination)) {
+            notificationDispatcher.flushHeld(user.getName());
+        }
+    }
+
     @EventListener
     public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
+        if (event.getUser() != null) {
+            presenceRegistry.sessionDisconnected(event.getUser().getName(), event.getSessionId());
+        }
+
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
 
         String username = (String) headerAccessor.getSessionAttributes().get("username");
@@ -9,6 +9,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -17,11 +18,22 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "appointment")
+@Table(name = "appointment", indexes = {
+        // Composite indexes backing the half-open start_time range lookups in AppointmentRepository
+        @Index(name = "idx_appointment_doctor_start_time", columnList = "doctor_id, start_time"),
+        @Index(name = "idx_appointment_patient_start_time", columnList = "patient_id, start_time"),
+        @Index(name = "idx_appointment_status_start_time", columnList = "status, start_time"),
+        // Clinic-wide day counts and lists filter on start_time alone
+        @Index(name = "idx_appointment_start_time", columnList = "start_time")
+})
 public class Appointment {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled sequence instead of IDENTITY so series bookings can be inserted as JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_seq")
+    @SequenceGenerator(name = "appointment_seq", sequenceName = "appointment_seq", allocationSize = Appointment.ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotNull(message = "Patient cannot be null")
@@ -61,6 +73,12 @@ public class Appointment {
 
     private LocalDateTime updatedAt;
 
+    // Optimistic locking; the default fills the column for rows that predate it
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
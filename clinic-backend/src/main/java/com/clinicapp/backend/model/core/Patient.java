@@ -7,7 +7,10 @@ import jakarta.validation.constraints.PastOrPresent;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.LazyGroup;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -17,7 +20,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "patient")
+@Table(name = "patient", indexes = {
+        // Backs the search index's refresh of recently changed patients
+        @Index(name = "idx_patient_updated_at", columnList = "updated_at")
+})
 public class Patient {
 
     @Id
@@ -50,12 +56,23 @@ public class Patient {
     @Column(unique = true) // Email might be optional or not unique depending on requirements
     private String email;
 
+    // Clinical text is only read by the patient detail views. Lazy via bytecode enhancement
+    // (hibernate-enhance-maven-plugin), so the many queries joining patient skip these columns;
+    // both load together on first access to either.
     @Lob // Large Object for potentially long text
     @Column(columnDefinition = "TEXT")
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("clinical")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private String medicalHistory;
 
     @Lob
     @Column(columnDefinition = "TEXT")
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("clinical")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private String allergies;
 
     @Column(nullable = false, updatable = false)
@@ -10,15 +10,25 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        // A user's notifications newest first, and their unread ones (lists, counts, mark-all-read)
+        @Index(name = "idx_notifications_user_created_at", columnList = "user_id, created_at"),
+        @Index(name = "idx_notifications_user_read_created_at", columnList = "user_id, read, created_at"),
+        // Keyset walk of expired read notifications in NotificationRetentionService
+        @Index(name = "idx_notifications_read_created_at", columnList = "read, created_at, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Notification {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts (see hibernate.jdbc.batch_size)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = Notification.ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -62,7 +72,9 @@ public class Notification {
 
     @PrePersist
     protected void onCreate() {
-        createdAt = Instant.now();
+        if (createdAt == null) { // Keep the time captured when the notification was raised
+            createdAt = Instant.now();
+        }
         read = false;
     }
 
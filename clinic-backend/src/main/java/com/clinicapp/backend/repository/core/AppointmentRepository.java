@@ -1,19 +1,25 @@
 package com.clinicapp.backend.repository.core;
 
+import com.clinicapp.backend.dto.core.AppointmentSlotDTO;
+import com.clinicapp.backend.dto.dashboard.DailyCountView;
 import com.clinicapp.backend.model.core.Appointment;
 import com.clinicapp.backend.model.core.AppointmentStatus;
 import com.clinicapp.backend.model.security.User; // Doctor
 import com.clinicapp.backend.model.core.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set; // Import Set for distinct IDs
+import java.util.stream.Stream;
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
 
@@ -23,13 +29,22 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     // Find appointments for a specific patient within a time range
     List<Appointment> findByPatientAndStartTimeBetween(Patient patient, LocalDateTime start, LocalDateTime end);
 
+    // Day lookups below take a half-open [dayStart, nextDayStart) range instead of wrapping start_time in DATE(),
+    // so they can use the (doctor_id|patient_id|status, start_time) indexes declared on Appointment.
+
     // Find appointments for a specific doctor on a specific day
-    @Query("SELECT a FROM Appointment a WHERE a.doctor = :doctor AND FUNCTION('DATE', a.startTime) = :date")
-    List<Appointment> findByDoctorAndDate(@Param("doctor") User doctor, @Param("date") LocalDate date);
+    @Query("SELECT a FROM Appointment a WHERE a.doctor = :doctor AND a.startTime >= :dayStart AND a.startTime < :nextDayStart")
+    List<Appointment> findByDoctorAndStartTimeRange(
+            @Param("doctor") User doctor,
+            @Param("dayStart") LocalDateTime dayStart,
+            @Param("nextDayStart") LocalDateTime nextDayStart);
 
     // Find appointments for a specific patient on a specific day
-    @Query("SELECT a FROM Appointment a WHERE a.patient = :patient AND FUNCTION('DATE', a.startTime) = :date")
-    List<Appointment> findByPatientAndDate(@Param("patient") Patient patient, @Param("date") LocalDate date);
+    @Query("SELECT a FROM Appointment a WHERE a.patient = :patient AND a.startTime >= :dayStart AND a.startTime < :nextDayStart")
+    List<Appointment> findByPatientAndStartTimeRange(
+            @Param("patient") Patient patient,
+            @Param("dayStart") LocalDateTime dayStart,
+            @Param("nextDayStart") LocalDateTime nextDayStart);
 
     // Find upcoming appointments for a doctor
     List<Appointment> findByDoctorAndStartTimeAfterOrderByStartTimeAsc(User doctor, LocalDateTime now);
@@ -57,43 +72,79 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
              @Param("newStartTime") LocalDateTime newStartTime,
              @Param("newEndTime") LocalDateTime newEndTime);
 
+    // Load the time windows of scheduled appointments ending after a given instant (seeds the in-memory schedule index)
+    @Query("SELECT new com.clinicapp.backend.dto.core.AppointmentSlotDTO(a.id, a.doctor.id, a.startTime, a.endTime) " +
+           "FROM Appointment a WHERE a.status = 'SCHEDULED' AND a.endTime > :after")
+    List<AppointmentSlotDTO> findScheduledSlotsEndingAfter(@Param("after") LocalDateTime after);
+
+    // Time windows of the given doctors' scheduled appointments overlapping [rangeStart, rangeEnd) (free-slot search without the index)
+    @Query("SELECT new com.clinicapp.backend.dto.core.AppointmentSlotDTO(a.id, a.doctor.id, a.startTime, a.endTime) " +
+           "FROM Appointment a WHERE a.status = 'SCHEDULED' AND a.doctor.id IN :doctorIds " +
+           "AND a.startTime < :rangeEnd AND a.endTime > :rangeStart")
+    List<AppointmentSlotDTO> findScheduledSlotsForDoctorsBetween(
+            @Param("doctorIds") Collection<Long> doctorIds,
+            @Param("rangeStart") LocalDateTime rangeStart,
+            @Param("rangeEnd") LocalDateTime rangeEnd);
+
     // Check if a patient has another appointment on the same day
     @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.patient = :patient " +
            "AND a.id <> :excludeAppointmentId " + // Exclude specific appointment (for updates)
            "AND a.status = 'SCHEDULED' " +
-           "AND FUNCTION('DATE', a.startTime) = :date")
-    boolean existsOtherAppointmentForPatientOnDate(
+           "AND a.startTime >= :dayStart AND a.startTime < :nextDayStart")
+    boolean existsOtherAppointmentForPatientInRange(
             @Param("patient") Patient patient,
-            @Param("date") LocalDate date,
+            @Param("dayStart") LocalDateTime dayStart,
+            @Param("nextDayStart") LocalDateTime nextDayStart,
             @Param("excludeAppointmentId") Long excludeAppointmentId); // Use 0L or null for new appointments
 
      // Simplified check if a patient has another appointment on the same day (for new appointments)
      @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.patient = :patient " +
             "AND a.status = 'SCHEDULED' " +
-            "AND FUNCTION('DATE', a.startTime) = :date")
-     boolean existsOtherAppointmentForPatientOnDate(
+            "AND a.startTime >= :dayStart AND a.startTime < :nextDayStart")
+     boolean existsOtherAppointmentForPatientInRange(
              @Param("patient") Patient patient,
-             @Param("date") LocalDate date);
+             @Param("dayStart") LocalDateTime dayStart,
+             @Param("nextDayStart") LocalDateTime nextDayStart);
 
    // --- Methods needed for DashboardService ---
 
-   // Count appointments on a specific date
-   @Query("SELECT COUNT(a) FROM Appointment a WHERE FUNCTION('DATE', a.startTime) = :date")
-   long countByAppointmentDate(@Param("date") LocalDate date);
+   // Count appointments starting within [dayStart, nextDayStart)
+   @Query("SELECT COUNT(a) FROM Appointment a WHERE a.startTime >= :dayStart AND a.startTime < :nextDayStart")
+   long countByStartTimeRange(@Param("dayStart") LocalDateTime dayStart, @Param("nextDayStart") LocalDateTime nextDayStart);
+
+   // Count appointments starting within [rangeStart, rangeEnd), grouped by calendar day in a single query
+   @Query("SELECT CAST(a.startTime AS LocalDate) AS day, COUNT(a) AS total FROM Appointment a " +
+          "WHERE a.startTime >= :rangeStart AND a.startTime < :rangeEnd " +
+          "GROUP BY CAST(a.startTime AS LocalDate)")
+   List<DailyCountView> countByStartTimeRangeGroupedByDay(@Param("rangeStart") LocalDateTime rangeStart, @Param("rangeEnd") LocalDateTime rangeEnd);
 
-   // Count appointments for a specific doctor on a specific date
-   @Query("SELECT COUNT(a) FROM Appointment a WHERE a.doctor.id = :doctorId AND FUNCTION('DATE', a.startTime) = :date")
-   long countByDoctorIdAndAppointmentDate(@Param("doctorId") Long doctorId, @Param("date") LocalDate date);
+   // Count appointments for a specific doctor starting within [dayStart, nextDayStart)
+   @Query("SELECT COUNT(a) FROM Appointment a WHERE a.doctor.id = :doctorId AND a.startTime >= :dayStart AND a.startTime < :nextDayStart")
+   long countByDoctorIdAndStartTimeRange(
+           @Param("doctorId") Long doctorId,
+           @Param("dayStart") LocalDateTime dayStart,
+           @Param("nextDayStart") LocalDateTime nextDayStart);
 
    // Find distinct patient IDs associated with a specific doctor via appointments
    @Query("SELECT DISTINCT a.patient.id FROM Appointment a WHERE a.doctor.id = :doctorId")
    Set<Long> findDistinctPatientIdsByDoctorId(@Param("doctorId") Long doctorId);
 
-   // Find appointments on a specific date, eagerly fetching patient and doctor
-   @Query("SELECT a FROM Appointment a JOIN FETCH a.patient JOIN FETCH a.doctor WHERE FUNCTION('DATE', a.startTime) = :date ORDER BY a.startTime ASC")
-   List<Appointment> findByAppointmentDateWithDetails(@Param("date") LocalDate date);
-
-   // Find appointments for a specific doctor on a specific date, eagerly fetching patient
-   @Query("SELECT a FROM Appointment a JOIN FETCH a.patient JOIN FETCH a.doctor WHERE a.doctor.id = :doctorId AND FUNCTION('DATE', a.startTime) = :date ORDER BY a.startTime ASC")
-   List<Appointment> findByDoctorIdAndDateWithDetails(@Param("doctorId") Long doctorId, @Param("date") LocalDate date);
-}
\ No newline at end of file
+   // Find appointments starting within [dayStart, nextDayStart), eagerly fetching patient and doctor
+   @Query("SELECT a FROM Appointment a JOIN FETCH a.patient JOIN FETCH a.doctor WHERE a.startTime >= :dayStart AND a.startTime < :nextDayStart ORDER BY a.startTime ASC")
+   List<Appointment> findByStartTimeRangeWithDetails(@Param("dayStart") LocalDateTime dayStart, @Param("nextDayStart") LocalDateTime nextDayStart);
+
+   // Find appointments for a specific doctor starting within [dayStart, nextDayStart), eagerly fetching patient
+   @Query("SELECT a FROM Appointment a JOIN FETCH a.patient JOIN FETCH a.doctor WHERE a.doctor.id = :doctorId AND a.startTime >= :dayStart AND a.startTime < :nextDayStart ORDER BY a.startTime ASC")
+   List<Appointment> findByDoctorIdAndStartTimeRangeWithDetails(
+           @Param("doctorId") Long doctorId,
+           @Param("dayStart") LocalDateTime dayStart,
+           @Param("nextDayStart") LocalDateTime nextDayStart);
+
+    // A patient's appointments with their doctors, oldest first, read through a server-side cursor; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.doctor WHERE a.patient.id = :patientId ORDER BY a.startTime")
+    Stream<Appointment> streamByPatientIdWithDoctor(@Param("patientId") Long patientId);
+}
@@ -1,17 +1,25 @@
 package com.clinicapp.backend.repository.core;
 
+import com.clinicapp.backend.dto.dashboard.MonthlyRevenueView;
 import com.clinicapp.backend.model.core.Invoice;
 import com.clinicapp.backend.model.core.InvoiceStatus;
 import com.clinicapp.backend.model.core.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query; // Import Query
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param; // Import Param
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal; // Import BigDecimal if needed for sums (though not directly here)
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Collection; // Import Collection for In clause
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
 
@@ -38,6 +46,40 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     @Query("SELECT i FROM Invoice i WHERE i.status = 'PAID' AND i.issueDate BETWEEN :startDate AND :endDate")
     List<Invoice> findPaidInvoicesIssuedBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
+    // Sum of PAID invoice totals issued within a date range, computed in the database; null when there are none (Needed for DashboardService)
+    @Query("SELECT SUM(i.totalAmount) FROM Invoice i WHERE i.status = 'PAID' AND i.issueDate BETWEEN :startDate AND :endDate")
+    BigDecimal sumPaidTotalIssuedBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // PAID invoice totals issued within a date range, grouped by month in a single query (Needed for DashboardService)
+    @Query("SELECT EXTRACT(MONTH FROM i.issueDate) AS monthOfYear, SUM(i.totalAmount) AS total FROM Invoice i " +
+           "WHERE i.status = 'PAID' AND i.issueDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY EXTRACT(MONTH FROM i.issueDate)")
+    List<MonthlyRevenueView> sumPaidTotalIssuedBetweenGroupedByMonth(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
     // Count invoices by a list of statuses (Needed for DashboardService)
     long countByStatusIn(Collection<InvoiceStatus> statuses);
-}
\ No newline at end of file
+
+    // Next page of invoice ids issued within a date range, optionally by status, after the given id (Needed for bulk PDF export)
+    @Query("SELECT i.id FROM Invoice i WHERE i.issueDate BETWEEN :startDate AND :endDate " +
+           "AND (:status IS NULL OR i.status = :status) AND i.id > :cursor ORDER BY i.id")
+    List<Long> findIdsIssuedBetweenAfter(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+                                         @Param("status") InvoiceStatus status, @Param("cursor") Long cursor, Limit limit);
+
+    // Latest modification of anything the invoice PDF prints (invoice, patient, appointment date),
+    // to validate cached PDFs without loading them; GREATEST skips the NULLs of never-updated rows
+    @Query("SELECT GREATEST(i.createdAt, i.updatedAt, p.updatedAt, a.updatedAt) " +
+           "FROM Invoice i JOIN i.patient p LEFT JOIN i.appointment a WHERE i.id = :id")
+    Optional<LocalDateTime> findVersionById(@Param("id") Long id);
+
+    // Invoice with everything its PDF needs fetched up front, so it can be rendered outside a session
+    @Query("SELECT i FROM Invoice i JOIN FETCH i.patient LEFT JOIN FETCH i.appointment WHERE i.id = :id")
+    Optional<Invoice> findForDocumentById(@Param("id") Long id);
+
+    // A patient's invoices, oldest first, read through a server-side cursor; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM Invoice i WHERE i.patient.id = :patientId ORDER BY i.issueDate, i.id")
+    Stream<Invoice> streamByPatientId(@Param("patientId") Long patientId);
+}
@@ -1,10 +1,22 @@
 package com.clinicapp.backend.repository.core;
 
+import com.clinicapp.backend.dto.core.PatientDTO;
+import com.clinicapp.backend.dto.core.PatientSummaryDTO;
 import com.clinicapp.backend.model.core.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
@@ -15,6 +27,50 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     // Find patient by email (if unique constraint is enforced)
     Optional<Patient> findByEmail(String email);
 
-    // Potential future methods:
-    // List<Patient> findByLastNameContainingIgnoreCase(String lastName);
+    // Every patient with its clinical text in a single select, rather than one lazy load per patient
+    @Query("SELECT new com.clinicapp.backend.dto.core.PatientDTO(" +
+           "p.id, p.firstName, p.lastName, p.dateOfBirth, p.gender, p.address, p.phoneNumber, p.email, " +
+           "p.medicalHistory, p.allergies) FROM Patient p ORDER BY p.id")
+    List<PatientDTO> findAllDetails();
+
+    // Keyset page of patient summaries: rows after the cursor id, in id order (uses the primary key index)
+    @Query("SELECT new com.clinicapp.backend.dto.core.PatientSummaryDTO(" +
+           "p.id, p.firstName, p.lastName, p.dateOfBirth, p.gender, p.phoneNumber, p.email) " +
+           "FROM Patient p WHERE p.id > :cursor ORDER BY p.id")
+    List<PatientSummaryDTO> findSummariesAfter(@Param("cursor") Long cursor, Limit limit);
+
+    // All patient summaries in id order, read through a server-side cursor; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.clinicapp.backend.dto.core.PatientSummaryDTO(" +
+           "p.id, p.firstName, p.lastName, p.dateOfBirth, p.gender, p.phoneNumber, p.email) " +
+           "FROM Patient p ORDER BY p.id")
+    Stream<PatientSummaryDTO> streamAllSummaries();
+
+    // Summaries by id, for hydrating search results
+    @Query("SELECT new com.clinicapp.backend.dto.core.PatientSummaryDTO(" +
+           "p.id, p.firstName, p.lastName, p.dateOfBirth, p.gender, p.phoneNumber, p.email) " +
+           "FROM Patient p WHERE p.id IN :ids")
+    List<PatientSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.clinicapp.backend.dto.core.PatientSummaryDTO(" +
+           "p.id, p.firstName, p.lastName, p.dateOfBirth, p.gender, p.phoneNumber, p.email) " +
+           "FROM Patient p WHERE p.id = :id")
+    Optional<PatientSummaryDTO> findSummaryById(@Param("id") Long id);
+
+    // Patients created or edited since the given time, for catching the search index up with other nodes
+    @Query("SELECT new com.clinicapp.backend.dto.core.PatientSummaryDTO(" +
+           "p.id, p.firstName, p.lastName, p.dateOfBirth, p.gender, p.phoneNumber, p.email) " +
+           "FROM Patient p WHERE p.updatedAt > :since ORDER BY p.id")
+    List<PatientSummaryDTO> findSummariesUpdatedSince(@Param("since") LocalDateTime since);
+
+    // Substring search, used only until the in-memory search index has loaded
+    @Query("SELECT new com.clinicapp.backend.dto.core.PatientSummaryDTO(" +
+           "p.id, p.firstName, p.lastName, p.dateOfBirth, p.gender, p.phoneNumber, p.email) " +
+           "FROM Patient p WHERE LOWER(p.firstName) LIKE :pattern OR LOWER(p.lastName) LIKE :pattern " +
+           "OR LOWER(p.email) LIKE :pattern OR p.phoneNumber LIKE :pattern ORDER BY p.id")
+    List<PatientSummaryDTO> searchSummaries(@Param("pattern") String pattern, Limit limit);
+
 }
\ No newline at end of file
@@ -3,11 +3,19 @@ package com.clinicapp.backend.repository.core;
 import com.clinicapp.backend.model.core.Prescription;
 import com.clinicapp.backend.model.core.Patient;
 import com.clinicapp.backend.model.security.User; // Doctor
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
@@ -26,4 +34,22 @@ public interface PrescriptionRepository extends JpaRepository<Prescription, Long
 
     // Count prescriptions issued by a specific doctor (Needed for DashboardService)
     long countByDoctorId(Long doctorId);
-}
\ No newline at end of file
+
+    // Latest modification of anything the prescription PDF prints (prescription, patient, doctor),
+    // to validate cached PDFs without loading them; GREATEST skips the NULLs of never-updated rows
+    @Query("SELECT GREATEST(p.createdAt, p.updatedAt, pa.updatedAt, d.updatedAt) " +
+           "FROM Prescription p JOIN p.patient pa JOIN p.doctor d WHERE p.id = :id")
+    Optional<LocalDateTime> findVersionById(@Param("id") Long id);
+
+    // Prescription with everything its PDF needs fetched up front, so it can be rendered outside a session
+    @Query("SELECT p FROM Prescription p JOIN FETCH p.patient JOIN FETCH p.doctor WHERE p.id = :id")
+    Optional<Prescription> findForDocumentById(@Param("id") Long id);
+
+    // A patient's prescriptions with their doctors, oldest first, read through a server-side cursor; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Prescription p JOIN FETCH p.doctor WHERE p.patient.id = :patientId ORDER BY p.prescriptionDate, p.id")
+    Stream<Prescription> streamByPatientIdWithDoctor(@Param("patientId") Long patientId);
+}
@@ -1,15 +1,19 @@
 package com.clinicapp.backend.repository.notification;
 
+import com.clinicapp.backend.dto.notification.NotificationKeyDTO;
 import com.clinicapp.backend.model.notification.Notification;
 import com.clinicapp.backend.model.security.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -23,11 +27,13 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     
     // Count unread notifications for a user
     long countByRecipientAndReadFalse(User recipient);
+
+    long countByRecipientIdAndReadFalse(Long recipientId);
     
-    // Mark all notifications as read for a user
+    // Mark all notifications as read for a user; returns how many were unread
     @Modifying
     @Query("UPDATE Notification n SET n.read = true, n.readAt = ?2 WHERE n.recipient = ?1 AND n.read = false")
-    void markAllAsRead(User recipient, Instant readAt);
+    int markAllAsRead(User recipient, Instant readAt);
     
     // Find notifications by type for a user
     Page<Notification> findByRecipientAndTypeOrderByCreatedAtDesc(
@@ -36,8 +42,16 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
             Pageable pageable
     );
     
-    // Delete old read notifications
+    // Next batch of read notifications created before the cutoff, in (createdAt, id) order after the given key (Needed for retention purge)
+    @Query("SELECT new com.clinicapp.backend.dto.notification.NotificationKeyDTO(n.id, n.createdAt) FROM Notification n " +
+           "WHERE n.read = true AND n.createdAt < :cutoff " +
+           "AND (n.createdAt > :afterCreatedAt OR (n.createdAt = :afterCreatedAt AND n.id > :afterId)) " +
+           "ORDER BY n.createdAt, n.id")
+    List<NotificationKeyDTO> findReadCreatedBeforeAfter(@Param("cutoff") Instant cutoff,
+                                                        @Param("afterCreatedAt") Instant afterCreatedAt,
+                                                        @Param("afterId") Long afterId, Limit limit);
+
     @Modifying
-    @Query("DELETE FROM Notification n WHERE n.read = true AND n.createdAt < ?1")
-    void deleteOldReadNotifications(Instant before);
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
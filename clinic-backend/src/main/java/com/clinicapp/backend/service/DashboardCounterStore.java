@@ -0,0 +1,318 @@
+package com.clinicapp.backend.service;
+
+import com.clinicapp.backend.event.AppointmentChangedEvent;
+import com.clinicapp.backend.event.InvoiceChangedEvent;
+import com.clinicapp.backend.event.PatientChangedEvent;
+import com.clinicapp.backend.event.PrescriptionChangedEvent;
+import com.clinicapp.backend.model.core.InvoiceStatus;
+import com.clinicapp.backend.repository.core.AppointmentRepository;
+import com.clinicapp.backend.repository.core.InvoiceRepository;
+import com.clinicapp.backend.repository.core.PatientRepository;
+import com.clinicapp.backend.repository.core.PrescriptionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory counters behind the dashboard statistic cards.
+ * <p>
+ * Each counter is seeded from the database the first time it is read and is then maintained from
+ * the domain events published by the core services. A change is registered against the counters it
+ * touches before its transaction commits and applied once it has committed. A counter is only
+ * cached when no change to it was in flight while its seeding query ran. Otherwise the query may or
+ * may not already include the change, so the fresh count is served without being cached and the
+ * next read tries again. A scheduled reconciliation re-reads the totals under the same rule and drops
+ * the keyed counters, so any other drift lasts at most one reconcile interval.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardCounterStore {
+
+    private static final String ALL = "all";
+
+    private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final PrescriptionRepository prescriptionRepository;
+
+    private final GuardedCounters<String> totalPatients = new GuardedCounters<>();
+    private final GuardedCounters<InvoiceStatus> invoicesByStatus = new GuardedCounters<>();
+    private final GuardedCounters<Long> prescriptionsByDoctor = new GuardedCounters<>();
+    private final GuardedCounters<LocalDate> appointmentsByDay = new GuardedCounters<>();
+    private final GuardedCounters<DoctorDay> doctorAppointmentsByDay = new GuardedCounters<>();
+    private final Map<Long, Set<Long>> patientsByDoctor = new ConcurrentHashMap<>();
+
+    // --- Reads ---
+
+    public long getTotalPatients() {
+        return totalPatients.get(ALL, patientRepository::count);
+    }
+
+    public long getInvoiceCount(InvoiceStatus... statuses) {
+        long count = 0;
+        for (InvoiceStatus status : statuses) {
+            count += invoicesByStatus.get(status, () -> invoiceRepository.countByStatusIn(List.of(status)));
+        }
+        return count;
+    }
+
+    public long getAppointmentCount(LocalDate day) {
+        return appointmentsByDay.get(day, () ->
+                appointmentRepository.countByStartTimeRange(day.atStartOfDay(), day.plusDays(1).atStartOfDay()));
+    }
+
+    public long getDoctorAppointmentCount(Long doctorId, LocalDate day) {
+        return doctorAppointmentsByDay.get(new DoctorDay(doctorId, day), () ->
+                appointmentRepository.countByDoctorIdAndStartTimeRange(doctorId, day.atStartOfDay(), day.plusDays(1).atStartOfDay()));
+    }
+
+    public long getDoctorPatientCount(Long doctorId) {
+        // Adding a patient twice is harmless, so the set needs no guard: events arriving while it is
+        // being seeded wait for the seed (computeIfPresent) and are then added on top
+        return patientsByDoctor.computeIfAbsent(doctorId, id -> {
+            Set<Long> patientIds = ConcurrentHashMap.newKeySet();
+            patientIds.addAll(appointmentRepository.findDistinctPatientIdsByDoctorId(id));
+            return patientIds;
+        }).size();
+    }
+
+    public long getDoctorPrescriptionCount(Long doctorId) {
+        return prescriptionsByDoctor.get(doctorId, () -> prescriptionRepository.countByDoctorId(doctorId));
+    }
+
+    // --- Event-driven updates ---
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onPatientChanged(PatientChangedEvent event) {
+        switch (event.getChangeType()) {
+            case CREATED -> track(List.of(new Delta<>(totalPatients, ALL, 1)), null);
+            case DELETED -> track(List.of(new Delta<>(totalPatients, ALL, -1)), null);
+            default -> { } // Updates don't affect any counter
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onInvoiceChanged(InvoiceChangedEvent event) {
+        List<Delta<?>> deltas = new ArrayList<>(2);
+        if (event.getPreviousStatus() != null) {
+            deltas.add(new Delta<>(invoicesByStatus, event.getPreviousStatus(), -1));
+        }
+        if (event.getCurrentStatus() != null) {
+            deltas.add(new Delta<>(invoicesByStatus, event.getCurrentStatus(), 1));
+        }
+        track(deltas, null);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onPrescriptionChanged(PrescriptionChangedEvent event) {
+        List<Delta<?>> deltas = new ArrayList<>(2);
+        if (event.getPreviousDoctorId() != null) {
+            deltas.add(new Delta<>(prescriptionsByDoctor, event.getPreviousDoctorId(), -1));
+        }
+        if (event.getCurrentDoctorId() != null) {
+            deltas.add(new Delta<>(prescriptionsByDoctor, event.getCurrentDoctorId(), 1));
+        }
+        track(deltas, null);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AppointmentChangedEvent.State previous = event.getPrevious();
+        AppointmentChangedEvent.State current = event.getCurrent();
+        List<Delta<?>> deltas = new ArrayList<>(4);
+        if (previous != null) {
+            LocalDate day = previous.getStartTime().toLocalDate();
+            deltas.add(new Delta<>(appointmentsByDay, day, -1));
+            deltas.add(new Delta<>(doctorAppointmentsByDay, new DoctorDay(previous.getDoctorId(), day), -1));
+        }
+        if (current != null) {
+            LocalDate day = current.getStartTime().toLocalDate();
+            deltas.add(new Delta<>(appointmentsByDay, day, 1));
+            deltas.add(new Delta<>(doctorAppointmentsByDay, new DoctorDay(current.getDoctorId(), day), 1));
+        }
+        // Patients only ever join a doctor's set here; a patient moved off a doctor is dropped on reconciliation
+        Runnable joinDoctor = current == null ? null : () -> patientsByDoctor.computeIfPresent(current.getDoctorId(), (id, patientIds) -> {
+            patientIds.add(current.getPatientId());
+            return patientIds;
+        });
+        track(deltas, joinDoctor);
+    }
+
+    // Marks the deltas in flight now, applies them once the transaction commits and clears them when it completes
+    private void track(List<Delta<?>> deltas, Runnable afterCommit) {
+        deltas.forEach(Delta::begin);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deltas.forEach(Delta::apply);
+                if (afterCommit != null) {
+                    afterCommit.run();
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                deltas.forEach(Delta::end);
+            }
+        });
+    }
+
+    // --- Reconciliation ---
+
+    /**
+     * Re-reads the totals and drops the keyed counters so they are re-seeded on next use.
+     */
+    @Scheduled(initialDelayString = "${application.dashboard.counters.reconcile-interval-ms:300000}",
+               fixedDelayString = "${application.dashboard.counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        long patientDrift = totalPatients.refresh(ALL, patientRepository::count);
+        long invoiceDrift = 0;
+        for (InvoiceStatus status : InvoiceStatus.values()) {
+            invoiceDrift += invoicesByStatus.refresh(status, () -> invoiceRepository.countByStatusIn(List.of(status)));
+        }
+        prescriptionsByDoctor.clear();
+        patientsByDoctor.clear();
+        appointmentsByDay.clear();
+        doctorAppointmentsByDay.clear();
+        if (patientDrift != 0 || invoiceDrift != 0) {
+            log.warn("Dashboard counters drifted from the database (patients: {}, invoices: {}); corrected", patientDrift, invoiceDrift);
+        }
+    }
+
+    /**
+     * Counters keyed by {@code K}, each cached only when it is known to agree with the database.
+     * <p>
+     * Every change to a key is counted as in flight from just before its transaction commits until the
+     * transaction completes, and stamped from a shared sequence. A seeding query only caches its result
+     * if the key had nothing in flight when the query started and no change began on it while the query
+     * ran. The check and the store happen under the key's lock in {@code inFlight}, the same lock a
+     * change takes to begin, so any change that begins later is applied to the stored counter.
+     */
+    private static final class GuardedCounters<K> {
+
+        private final Map<K, LongAdder> counters = new ConcurrentHashMap<>();
+        private final Map<K, InFlight> inFlight = new ConcurrentHashMap<>();
+        private final AtomicLong sequence = new AtomicLong();
+        private long pruneBefore = 0; // Only touched by the reconciliation thread
+
+        long get(K key, LongSupplier query) {
+            LongAdder adder = counters.get(key);
+            if (adder != null) {
+                return adder.sum();
+            }
+            long since = sequence.get();
+            boolean quietBefore = quiet(inFlight.get(key), since);
+            long count = query.getAsLong();
+            if (quietBefore) {
+                storeIfQuiet(key, count, since, false);
+            }
+            return count; // Served uncached if a change was in flight; the next read seeds again
+        }
+
+        // Replaces a counter with the database value if nothing touched it meanwhile; returns the corrected drift
+        long refresh(K key, LongSupplier query) {
+            long since = sequence.get();
+            if (!quiet(inFlight.get(key), since)) {
+                return 0; // A change is committing; correct it on the next round
+            }
+            long count = query.getAsLong();
+            return storeIfQuiet(key, count, since, true);
+        }
+
+        void begin(K key) {
+            inFlight.compute(key, (k, flight) -> {
+                InFlight updated = flight == null ? new InFlight() : flight;
+                updated.pending++;
+                updated.lastBegin = sequence.incrementAndGet();
+                return updated;
+            });
+        }
+
+        void apply(K key, long delta) {
+            LongAdder adder = counters.get(key);
+            if (adder != null) {
+                adder.add(delta);
+            }
+        }
+
+        void end(K key) {
+            inFlight.computeIfPresent(key, (k, flight) -> {
+                flight.pending--;
+                return flight;
+            });
+        }
+
+        // Drops the counters and forgets keys that have been idle since the previous call
+        void clear() {
+            counters.clear();
+            long cutoff = pruneBefore;
+            pruneBefore = sequence.get();
+            inFlight.keySet().forEach(key -> inFlight.computeIfPresent(key, (k, flight) ->
+                    flight.pending == 0 && flight.lastBegin <= cutoff ? null : flight));
+        }
+
+        // "since" is read before the query, so a change that began while it ran has a later stamp
+        private long storeIfQuiet(K key, long count, long since, boolean replace) {
+            long[] drift = {0};
+            inFlight.compute(key, (k, flight) -> {
+                if (quiet(flight, since)) {
+                    LongAdder previous = replace ? counters.put(key, seededAdder(count)) : counters.putIfAbsent(key, seededAdder(count));
+                    if (replace && previous != null) {
+                        drift[0] = previous.sum() - count;
+                    }
+                }
+                return flight;
+            });
+            return drift[0];
+        }
+
+        private static boolean quiet(InFlight flight, long since) {
+            return flight == null || (flight.pending == 0 && flight.lastBegin <= since);
+        }
+
+        private static LongAdder seededAdder(long initialValue) {
+            LongAdder adder = new LongAdder();
+            adder.add(initialValue);
+            return adder;
+        }
+    }
+
+    // Mutated only inside inFlight.compute, which serializes writes per key; volatile for the unlocked pre-check
+    private static final class InFlight {
+        private volatile int pending;
+        private volatile long lastBegin;
+    }
+
+    private record Delta<K>(GuardedCounters<K> counters, K key, long delta) {
+        void begin() {
+            counters.begin(key);
+        }
+
+        void apply() {
+            counters.apply(key, delta);
+        }
+
+        void end() {
+            counters.end(key);
+        }
+    }
+
+    private record DoctorDay(Long doctorId, LocalDate day) {
+    }
+}
@@ -5,11 +5,12 @@ import com.clinicapp.backend.model.core.*;
 // Security Models
 import com.clinicapp.backend.model.security.Role; // Import Role
 import com.clinicapp.backend.model.security.User;
+// Projections
+import com.clinicapp.backend.dto.dashboard.DailyCountView;
+import com.clinicapp.backend.dto.dashboard.MonthlyRevenueView;
 // Repositories
 import com.clinicapp.backend.repository.core.AppointmentRepository;
 import com.clinicapp.backend.repository.core.InvoiceRepository;
-import com.clinicapp.backend.repository.core.PatientRepository;
-import com.clinicapp.backend.repository.core.PrescriptionRepository;
 import com.clinicapp.backend.repository.security.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -21,6 +22,8 @@ import java.time.LocalDate;
 import java.time.Month;
 import java.time.YearMonth;
 import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -33,23 +36,21 @@ import java.util.stream.IntStream;
 @Transactional(readOnly = true) // Most dashboard methods are read-only
 public class DashboardServiceImpl implements DashboardService {
 
-    private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
     private final InvoiceRepository invoiceRepository;
     private final UserRepository userRepository;
-    private final PrescriptionRepository prescriptionRepository;
+    private final DashboardCounterStore counterStore; // Event-maintained counters for the stat cards
 
     // --- Admin Stats ---
 
     @Override
     public long getTotalPatients() {
-        return patientRepository.count();
+        return counterStore.getTotalPatients();
     }
 
     @Override
     public long getAppointmentsTodayCount() {
-        LocalDate today = LocalDate.now();
-        return appointmentRepository.countByAppointmentDate(today);
+        return counterStore.getAppointmentCount(LocalDate.now());
     }
 
     @Override
@@ -58,12 +59,9 @@ public class DashboardServiceImpl implements DashboardService {
         LocalDate startOfMonth = yearMonth.atDay(1);
         LocalDate endOfMonth = yearMonth.atEndOfMonth();
 
-        // Sum 'totalAmount' for PAID invoices issued within the month
-        // Note: Assumes InvoiceRepository has findPaidInvoicesIssuedBetween method
-        return invoiceRepository.findPaidInvoicesIssuedBetween(startOfMonth, endOfMonth)
-                .stream()
-                .map(Invoice::getTotalAmount) // Requires Invoice model import
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Sum 'totalAmount' for PAID invoices issued within the month in the database
+        BigDecimal revenue = invoiceRepository.sumPaidTotalIssuedBetween(startOfMonth, endOfMonth);
+        return revenue != null ? revenue : BigDecimal.ZERO;
     }
 
     @Override
@@ -76,9 +74,7 @@ public class DashboardServiceImpl implements DashboardService {
 
     @Override
     public long getDoctorAppointmentsTodayCount(Long doctorId) {
-        LocalDate today = LocalDate.now();
-        // Note: Assumes AppointmentRepository has countByDoctorIdAndAppointmentDate method
-        return appointmentRepository.countByDoctorIdAndAppointmentDate(doctorId, today);
+        return counterStore.getDoctorAppointmentCount(doctorId, LocalDate.now());
         // TODO: Add logic for completed/remaining if needed based on time/status
     }
 
@@ -86,16 +82,14 @@ public class DashboardServiceImpl implements DashboardService {
     public long getDoctorTotalPatientsCount(Long doctorId) {
         // This requires linking patients to doctors, e.g., via appointments
         // Simplistic approach: count distinct patients with appointments with this doctor
-        // Note: Assumes AppointmentRepository has findDistinctPatientIdsByDoctorId method
-        return appointmentRepository.findDistinctPatientIdsByDoctorId(doctorId).size();
+        return counterStore.getDoctorPatientCount(doctorId);
     }
 
     @Override
     public long getDoctorPendingPrescriptionsCount(Long doctorId) {
         // Define "pending" - e.g., prescriptions created but not yet marked as 'filled' or similar status if added
         // For now, just count all prescriptions by this doctor (needs refinement)
-        // Note: Assumes PrescriptionRepository has countByDoctorId method
-        return prescriptionRepository.countByDoctorId(doctorId);
+        return counterStore.getDoctorPrescriptionCount(doctorId);
     }
 
     // --- Secretary Stats ---
@@ -108,8 +102,7 @@ public class DashboardServiceImpl implements DashboardService {
     @Override
     public long getPendingInvoicesCount() {
         // Count invoices that are SENT or OVERDUE
-        // Note: Assumes InvoiceRepository has countByStatusIn method
-        return invoiceRepository.countByStatusIn(List.of(InvoiceStatus.SENT, InvoiceStatus.OVERDUE)); // Requires Invoice model import
+        return counterStore.getInvoiceCount(InvoiceStatus.SENT, InvoiceStatus.OVERDUE);
     }
 
     @Override
@@ -121,32 +114,42 @@ public class DashboardServiceImpl implements DashboardService {
     @Override
     public long getUrgentMattersCount() {
         // Example definition: Overdue invoices
-        return invoiceRepository.countByStatusIn(List.of(InvoiceStatus.OVERDUE)); // Use direct enum reference
+        return counterStore.getInvoiceCount(InvoiceStatus.OVERDUE);
     }
 
     // --- Chart Data ---
 
     @Override
     public Map<String, BigDecimal> getRevenueOverviewForYear(int year) {
+        // One grouped query for the whole year; months without PAID invoices stay at zero
+        BigDecimal[] totals = new BigDecimal[12];
+        Arrays.fill(totals, BigDecimal.ZERO);
+        for (MonthlyRevenueView row : invoiceRepository.sumPaidTotalIssuedBetweenGroupedByMonth(
+                LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31))) {
+            totals[row.getMonthOfYear() - 1] = row.getTotal();
+        }
+
         Map<String, BigDecimal> monthlyRevenue = new LinkedHashMap<>(); // Keep month order
         for (int month = 1; month <= 12; month++) {
-            BigDecimal revenue = getMonthlyRevenue(year, month);
             String monthName = Month.of(month).getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
-            monthlyRevenue.put(monthName, revenue);
+            monthlyRevenue.put(monthName, totals[month - 1]);
         }
         return monthlyRevenue;
     }
 
     @Override
     public Map<String, Long> getWeeklyAppointmentsCount(LocalDate startDate) {
+        // Get counts for the next 7 days (adjust range as needed) with one grouped query
+        long[] counts = new long[7];
+        for (DailyCountView row : appointmentRepository.countByStartTimeRangeGroupedByDay(
+                startDate.atStartOfDay(), startDate.plusDays(7).atStartOfDay())) {
+            counts[(int) ChronoUnit.DAYS.between(startDate, row.getDay())] = row.getTotal();
+        }
+
         Map<String, Long> weeklyCounts = new LinkedHashMap<>();
-        LocalDate currentDate = startDate;
-        // Get counts for the next 7 days (adjust range as needed)
         for (int i = 0; i < 7; i++) {
-            long count = appointmentRepository.countByAppointmentDate(currentDate);
-            String dayName = currentDate.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
-            weeklyCounts.put(dayName, count);
-            currentDate = currentDate.plusDays(1);
+            String dayName = startDate.plusDays(i).getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
+            weeklyCounts.put(dayName, counts[i]);
         }
         return weeklyCounts;
     }
@@ -3,6 +3,7 @@ package com.clinicapp.backend.service;
 import com.clinicapp.backend.model.security.Role;
 import com.clinicapp.backend.model.security.User;
 import com.clinicapp.backend.repository.security.UserRepository;
+import com.clinicapp.backend.service.security.AuthenticatedPrincipalCache;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -19,6 +20,7 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder; // Needed for encoding password on create/update
+    private final AuthenticatedPrincipalCache principalCache; // Cached principals must not outlive role/password changes
 
     @Override
     @Transactional
@@ -61,7 +63,9 @@ public class UserServiceImpl implements UserService {
             existingUser.setPassword(passwordEncoder.encode(userUpdates.getPassword()));
         }
 
-        return userRepository.save(existingUser);
+        User savedUser = userRepository.save(existingUser);
+        principalCache.evictUserAfterCommit(savedUser.getId());
+        return savedUser;
     }
 
     @Override
@@ -72,6 +76,7 @@ public class UserServiceImpl implements UserService {
         }
         // Consider adding checks (e.g., cannot delete the last admin)
         userRepository.deleteById(userId);
+        principalCache.evictUserAfterCommit(userId);
     }
 
     @Override
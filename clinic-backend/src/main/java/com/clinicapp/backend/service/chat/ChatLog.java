@@ -0,0 +1,555 @@
+package com.clinicapp.backend.service.chat;
+
+import com.clinicapp.backend.dto.chat.StoredChatMessageDTO;
+import com.clinicapp.backend.model.chat.ChatMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only store of chat messages.
+ * <p>
+ * Messages are appended to memory-mapped segment files and numbered with a global offset. Each
+ * record is {@code [int length][int crc32][long offset][long timestamp][short conversation length]
+ * [conversation][message JSON]}, where length and CRC cover everything after the CRC. Appends only
+ * copy bytes into the mapping; a single flusher thread then forces all segments written since its
+ * last pass to disk in one go (group commit), so many concurrent messages share one fsync. The
+ * appenders' futures are completed in offset order on a separate completer thread, so callbacks
+ * that broadcast the messages never hold up the next fsync. Readers only see committed records.
+ * <p>
+ * An in-memory index maps each conversation to the offsets of its records and each segment to its
+ * record positions. It is rebuilt by scanning the segments on startup, which also cuts off a
+ * record torn by a crash. Retention drops whole segments by age and total size.
+ * <p>
+ * The log and its index are local to one node, and the directory is locked while open so a second
+ * process can't write to it. Chat therefore only works with the simple broker: the application
+ * fails to start in relay (multi-node) broker mode unless chat is disabled with
+ * {@code application.chat.enabled=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "application.chat.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ChatLog {
+
+    public static final String PUBLIC_CONVERSATION = "public";
+
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 2;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String LOCK_FILE = "chat-log.lock";
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean fsync;
+    private final Duration retention;
+    private final long retentionBytes;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Map<String, OffsetList> conversations = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private Segment active;
+    private long nextOffset;
+    private final List<PendingAppend> pending = new ArrayList<>();
+    private final Set<Segment> dirty = new LinkedHashSet<>();
+
+    private volatile long committedOffset; // Records below this offset are durable and visible to readers
+    private volatile long startOffset; // Records below this offset were removed by retention
+    private volatile boolean running;
+    private Thread flusher;
+    private ExecutorService completer;
+    private FileChannel lockChannel;
+    private FileLock lock;
+
+    public ChatLog(
+            ObjectMapper objectMapper,
+            @Value("${application.websocket.broker.mode:simple}") String brokerMode,
+            @Value("${application.chat.log.directory:data/chat-log}") String directory,
+            @Value("${application.chat.log.segment-bytes:67108864}") int segmentBytes,
+            @Value("${application.chat.log.fsync:true}") boolean fsync,
+            @Value("${application.chat.log.retention-hours:720}") long retentionHours,
+            @Value("${application.chat.log.retention-bytes:1073741824}") long retentionBytes) {
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            throw new IllegalStateException("Chat history is stored on the local node and needs the simple broker; "
+                    + "set application.chat.enabled=false to run in relay broker mode");
+        }
+        this.objectMapper = objectMapper;
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        this.retention = Duration.ofHours(retentionHours);
+        this.retentionBytes = retentionBytes;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        Files.createDirectories(directory);
+        lockDirectory();
+        List<Long> baseOffsets = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                baseOffsets.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        baseOffsets.sort(null);
+        for (long baseOffset : baseOffsets) {
+            Segment segment = Segment.open(segmentPath(baseOffset), baseOffset, segmentBytes);
+            recover(segment);
+            segments.put(baseOffset, segment);
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, Segment.open(segmentPath(0), 0, segmentBytes));
+        }
+        active = segments.lastEntry().getValue();
+        nextOffset = active.baseOffset + active.count;
+        committedOffset = nextOffset;
+        startOffset = segments.firstKey();
+        log.info("Chat log opened with {} segments, offsets {} to {}", segments.size(), startOffset, nextOffset);
+
+        running = true;
+        completer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "chat-log-completer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher = new Thread(this::flushLoop, "chat-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException {
+        running = false;
+        synchronized (this) {
+            notifyAll();
+        }
+        flusher.join(5000);
+        flush(); // Commit anything appended after the flusher's last pass
+        completer.shutdown();
+        completer.awaitTermination(5, TimeUnit.SECONDS);
+        try {
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            log.warn("Could not release the chat log directory lock", e);
+        }
+    }
+
+    private void lockDirectory() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null; // Held by another ChatLog in this JVM
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Chat log directory " + directory.toAbsolutePath() + " is in use by another process");
+        }
+    }
+
+    public static String privateConversation(String user, String otherUser) {
+        return user.compareTo(otherUser) <= 0 ? "private:" + user + "|" + otherUser : "private:" + otherUser + "|" + user;
+    }
+
+    /**
+     * Appends a message to a conversation. The future completes with the stored message once it is
+     * durable (or immediately after the next flusher pass when fsync is disabled), on the completer
+     * thread.
+     */
+    public CompletableFuture<StoredChatMessageDTO> append(String conversation, ChatMessage message) {
+        if (message.getTimestamp() == null) {
+            message.setTimestamp(Instant.now());
+        }
+        byte[] record;
+        try {
+            record = encode(conversation, message);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (record.length > segmentBytes) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Chat message too large for the log"));
+        }
+        CompletableFuture<StoredChatMessageDTO> future = new CompletableFuture<>();
+        synchronized (this) {
+            if (!active.hasRoom(record.length)) {
+                roll();
+            }
+            long offset = nextOffset++;
+            ByteBuffer.wrap(record, 8, 8).putLong(offset);
+            writeCrc(record);
+            active.append(record, message.getTimestamp().toEpochMilli());
+            conversations.computeIfAbsent(conversation, c -> new OffsetList()).add(offset);
+            dirty.add(active);
+            pending.add(new PendingAppend(future, StoredChatMessageDTO.of(offset, message)));
+            notifyAll();
+        }
+        return future;
+    }
+
+    /**
+     * The last {@code limit} committed messages of a conversation, oldest first.
+     */
+    public List<StoredChatMessageDTO> latest(String conversation, int limit) {
+        OffsetList offsets = conversations.get(conversation);
+        if (offsets == null) {
+            return List.of();
+        }
+        long committed = committedOffset;
+        long start = startOffset;
+        OffsetList.View view = offsets.view();
+        int to = view.indexAfter(committed - 1);
+        int from = Math.max(to - limit, view.indexAfter(start - 1));
+        return read(view.offsets(), from, to);
+    }
+
+    /**
+     * Committed messages of a conversation after the given offset, oldest first, at most {@code limit}.
+     */
+    public List<StoredChatMessageDTO> after(String conversation, long afterOffset, int limit) {
+        OffsetList offsets = conversations.get(conversation);
+        if (offsets == null) {
+            return List.of();
+        }
+        long committed = committedOffset;
+        OffsetList.View view = offsets.view();
+        int from = view.indexAfter(Math.max(afterOffset, startOffset - 1));
+        int to = Math.min(view.indexAfter(committed - 1), from + limit);
+        return read(view.offsets(), from, to);
+    }
+
+    /**
+     * Drops the oldest sealed segments once they are older than the retention period or the log
+     * exceeds its size budget.
+     */
+    @Scheduled(fixedDelayString = "${application.chat.log.retention-check-interval-ms:600000}")
+    public void enforceRetention() {
+        long cutoff = System.currentTimeMillis() - retention.toMillis();
+        List<Segment> removed = new ArrayList<>();
+        synchronized (this) {
+            long totalBytes = segments.values().stream().mapToLong(segment -> segment.position).sum();
+            for (Segment segment : segments.values()) {
+                if (segment == active) {
+                    break; // Never drop the segment being written
+                }
+                if (segment.lastTimestamp >= cutoff && totalBytes <= retentionBytes) {
+                    break;
+                }
+                segments.remove(segment.baseOffset);
+                totalBytes -= segment.position;
+                removed.add(segment);
+            }
+            if (removed.isEmpty()) {
+                return;
+            }
+            startOffset = segments.firstKey();
+            conversations.replaceAll((conversation, offsets) -> offsets.from(startOffset));
+            conversations.values().removeIf(OffsetList::isEmpty);
+        }
+        for (Segment segment : removed) {
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("Could not delete chat log segment {}", segment.path, e);
+            }
+        }
+        log.info("Chat log retention removed {} segments; log now starts at offset {}", removed.size(), startOffset);
+    }
+
+    // --- Writing ---
+
+    private byte[] encode(String conversation, ChatMessage message) throws IOException {
+        byte[] conversationBytes = conversation.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = objectMapper.writeValueAsBytes(message);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + conversationBytes.length + payload.length);
+        record.putInt(record.capacity() - 8); // Length of everything after length and CRC
+        record.putInt(0); // CRC, written once the offset is known
+        record.putLong(0); // Offset, assigned under the lock
+        record.putLong(message.getTimestamp().toEpochMilli());
+        record.putShort((short) conversationBytes.length);
+        record.put(conversationBytes);
+        record.put(payload);
+        return record.array();
+    }
+
+    private static void writeCrc(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 8, record.length - 8);
+        ByteBuffer.wrap(record, 4, 4).putInt((int) crc.getValue());
+    }
+
+    // Guarded by this
+    private void roll() {
+        try {
+            Segment next = Segment.open(segmentPath(nextOffset), nextOffset, segmentBytes);
+            segments.put(nextOffset, next);
+            active = next;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create chat log segment", e);
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            synchronized (this) {
+                while (running && pending.isEmpty()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+            flush();
+        }
+    }
+
+    /**
+     * Commits everything appended so far: one force per dirty segment, however many messages it holds.
+     */
+    private void flush() {
+        List<PendingAppend> batch;
+        List<Segment> toForce;
+        long appendedUpTo;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending);
+            pending.clear();
+            toForce = new ArrayList<>(dirty);
+            dirty.clear();
+            appendedUpTo = nextOffset;
+        }
+        try {
+            if (fsync) {
+                for (Segment segment : toForce) {
+                    segment.buffer.force();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not sync chat log", e);
+            completer.execute(() -> batch.forEach(append -> append.future().completeExceptionally(e)));
+            return;
+        }
+        committedOffset = appendedUpTo;
+        completer.execute(() -> batch.forEach(append -> append.future().complete(append.message())));
+    }
+
+    // --- Reading ---
+
+    private List<StoredChatMessageDTO> read(long[] offsets, int from, int to) {
+        List<StoredChatMessageDTO> messages = new ArrayList<>(Math.max(to - from, 0));
+        for (int i = from; i < to; i++) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(offsets[i]);
+            if (entry == null) {
+                continue; // Removed by retention while we were reading
+            }
+            Segment segment = entry.getValue();
+            try {
+                messages.add(segment.read(offsets[i], objectMapper));
+            } catch (IOException e) {
+                log.warn("Could not read chat message at offset {}", offsets[i], e);
+            }
+        }
+        return messages;
+    }
+
+    // --- Recovery ---
+
+    private void recover(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int position = 0;
+        CRC32 crc = new CRC32();
+        while (position + HEADER_BYTES <= segment.capacity) {
+            int length = buffer.getInt(position);
+            if (length < HEADER_BYTES - 8 || position + 8 + length > segment.capacity) {
+                break; // End of the written part (zero-filled) or a torn length
+            }
+            byte[] body = new byte[length];
+            buffer.get(position + 8, body);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                log.warn("Chat log segment {} has a torn record at position {}; truncating", segment.path, position);
+                break;
+            }
+            ByteBuffer header = ByteBuffer.wrap(body);
+            long offset = header.getLong();
+            if (offset != segment.baseOffset + segment.count) {
+                log.warn("Chat log segment {} has an out-of-sequence record at position {}; truncating", segment.path, position);
+                break;
+            }
+            long timestamp = header.getLong();
+            byte[] conversation = new byte[header.getShort()];
+            header.get(conversation);
+            segment.index(position, 8 + length, timestamp);
+            conversations.computeIfAbsent(new String(conversation, StandardCharsets.UTF_8), c -> new OffsetList()).add(offset);
+            position += 8 + length;
+        }
+        // Zero whatever follows, so a torn tail can't be mistaken for records later
+        for (int i = position; i < Math.min(position + HEADER_BYTES, segment.capacity); i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    private Path segmentPath(long baseOffset) {
+        return directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+    }
+
+    private record PendingAppend(CompletableFuture<StoredChatMessageDTO> future, StoredChatMessageDTO message) {
+    }
+
+    /**
+     * One memory-mapped segment file and the positions of its records, by offset.
+     */
+    private static final class Segment {
+
+        private final Path path;
+        private final long baseOffset;
+        private final int capacity;
+        private final MappedByteBuffer buffer;
+        private int[] positions = new int[1024];
+        private int count;
+        private int position;
+        private volatile long lastTimestamp;
+
+        private Segment(Path path, long baseOffset, int capacity, MappedByteBuffer buffer) {
+            this.path = path;
+            this.baseOffset = baseOffset;
+            this.capacity = capacity;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long baseOffset, int capacity) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // The mapping stays valid after the channel is closed
+                return new Segment(path, baseOffset, capacity, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+            }
+        }
+
+        boolean hasRoom(int recordBytes) {
+            return position + recordBytes <= capacity;
+        }
+
+        void append(byte[] record, long timestamp) {
+            buffer.put(position, record);
+            index(position, record.length, timestamp);
+        }
+
+        void index(int recordPosition, int recordBytes, long timestamp) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = recordPosition;
+            position = recordPosition + recordBytes;
+            lastTimestamp = timestamp;
+        }
+
+        StoredChatMessageDTO read(long offset, ObjectMapper objectMapper) throws IOException {
+            int recordPosition = positions[(int) (offset - baseOffset)];
+            int length = buffer.getInt(recordPosition);
+            int conversationBytes = buffer.getShort(recordPosition + HEADER_BYTES - 2);
+            int payloadStart = recordPosition + HEADER_BYTES + conversationBytes;
+            byte[] payload = new byte[recordPosition + 8 + length - payloadStart];
+            buffer.get(payloadStart, payload);
+            return StoredChatMessageDTO.of(offset, objectMapper.readValue(payload, ChatMessage.class));
+        }
+    }
+
+    /**
+     * Growable list of a conversation's offsets in ascending order. Appended to under the log's
+     * lock; readers take a view without locking or copying.
+     */
+    private static final class OffsetList {
+
+        private long[] offsets = new long[16];
+        private volatile int size;
+
+        // Called under the log's lock
+        void add(long offset) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size] = offset;
+            size = size + 1; // Publishes the element written above
+        }
+
+        View view() {
+            int n = size; // Read size first: the array read next holds at least n elements
+            return new View(offsets, n);
+        }
+
+        // Called under the log's lock
+        OffsetList from(long startOffset) {
+            View current = view();
+            int from = current.indexAfter(startOffset - 1);
+            OffsetList kept = new OffsetList();
+            kept.offsets = Arrays.copyOfRange(current.offsets(), from, Math.max(from + 16, current.size()));
+            kept.size = current.size() - from;
+            return kept;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * The first {@code size} elements of {@code offsets}, as seen at one point in time.
+         */
+        record View(long[] offsets, int size) {
+
+            /**
+             * Index of the first offset greater than {@code offset}.
+             */
+            int indexAfter(long offset) {
+                int low = 0;
+                int high = size;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (offsets[mid] <= offset) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                return low;
+            }
+        }
+    }
+}
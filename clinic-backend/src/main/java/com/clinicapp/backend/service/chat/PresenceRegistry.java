@@ -0,0 +1,81 @@
+package com.clinicapp.backend.service.chat;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which users currently have a WebSocket session, keyed by principal name (the username).
+ * <p>
+ * Fed from the session connect and disconnect events. A user with several tabs open has several
+ * sessions and stays online until the last one closes. In relay mode users connected to another
+ * node are only known to Spring's broadcast user registry, so that is consulted for users with no
+ * session here.
+ */
+@Component
+public class PresenceRegistry {
+
+    private final ConcurrentHashMap<String, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+    private final SimpUserRegistry userRegistry;
+
+    public PresenceRegistry(SimpUserRegistry userRegistry, MeterRegistry meterRegistry) {
+        this.userRegistry = userRegistry;
+        Gauge.builder("websocket.presence.users", sessionsByUser, ConcurrentHashMap::size)
+                .description("Users with at least one WebSocket session on this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a new session.
+     *
+     * @return {@code true} if this is the user's first session, i.e. the user just came online
+     */
+    public boolean sessionConnected(String username, String sessionId) {
+        boolean[] cameOnline = new boolean[1];
+        sessionsByUser.compute(username, (user, sessions) -> {
+            if (sessions == null) {
+                sessions = ConcurrentHashMap.newKeySet();
+                cameOnline[0] = true;
+            }
+            sessions.add(sessionId);
+            return sessions;
+        });
+        return cameOnline[0];
+    }
+
+    /**
+     * Forgets a closed session.
+     *
+     * @return {@code true} if it was the user's last session, i.e. the user just went offline
+     */
+    public boolean sessionDisconnected(String username, String sessionId) {
+        boolean[] wentOffline = new boolean[1];
+        sessionsByUser.computeIfPresent(username, (user, sessions) -> {
+            // Disconnect events can be repeated for the same session; only the last removal counts
+            if (sessions.remove(sessionId) && sessions.isEmpty()) {
+                wentOffline[0] = true;
+                return null;
+            }
+            return sessions.isEmpty() ? null : sessions;
+        });
+        return wentOffline[0];
+    }
+
+    public boolean isOnline(String username) {
+        return username != null && (sessionsByUser.containsKey(username) || userRegistry.getUser(username) != null);
+    }
+
+    /**
+     * Usernames of everyone online, sorted.
+     */
+    public Set<String> onlineUsers() {
+        Set<String> online = new TreeSet<>(sessionsByUser.keySet());
+        userRegistry.getUsers().forEach(user -> online.add(user.getName()));
+        return online;
+    }
+}
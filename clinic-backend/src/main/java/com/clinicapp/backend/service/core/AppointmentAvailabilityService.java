@@ -0,0 +1,147 @@
+package com.clinicapp.backend.service.core;
+
+import com.clinicapp.backend.dto.core.AppointmentSlotDTO;
+import com.clinicapp.backend.dto.core.FreeSlotDTO;
+import com.clinicapp.backend.repository.core.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static com.clinicapp.backend.service.core.AppointmentScheduleIndex.SLOT_MINUTES;
+
+/**
+ * Finds open appointment times from the busy-slot bitmaps of {@link AppointmentScheduleIndex},
+ * within the clinic's opening hours; on a single node without touching the database. Doctor ids
+ * are not checked; a doctor without appointments is simply free.
+ * <p>
+ * With the distributed booking lock enabled other nodes book too and this node's index can be
+ * stale, so the bitmaps are then built per request from the doctors' appointments in the database.
+ */
+@Service
+public class AppointmentAvailabilityService {
+
+    public static final int MAX_LIMIT = 100;
+    public static final int MAX_DAYS = 92;
+
+    private final AppointmentScheduleIndex scheduleIndex;
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentBookingLocks bookingLocks;
+    private final int openingSlot;
+    private final int closingSlot;
+    private final Set<DayOfWeek> closedDays;
+
+    public AppointmentAvailabilityService(
+            AppointmentScheduleIndex scheduleIndex,
+            AppointmentRepository appointmentRepository,
+            AppointmentBookingLocks bookingLocks,
+            @Value("${application.appointments.availability.opening-time:08:00}") String openingTime,
+            @Value("${application.appointments.availability.closing-time:18:00}") String closingTime,
+            @Value("${application.appointments.availability.closed-days:SATURDAY,SUNDAY}") List<DayOfWeek> closedDays) {
+        this.scheduleIndex = scheduleIndex;
+        this.appointmentRepository = appointmentRepository;
+        this.bookingLocks = bookingLocks;
+        this.openingSlot = LocalTime.parse(openingTime).toSecondOfDay() / (SLOT_MINUTES * 60);
+        this.closingSlot = LocalTime.parse(closingTime).toSecondOfDay() / (SLOT_MINUTES * 60);
+        this.closedDays = closedDays.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(closedDays);
+    }
+
+    /**
+     * The earliest {@code limit} windows of {@code durationMinutes} in which one of the doctors is
+     * free, between {@code from} and {@code to} (inclusive), ordered by start time. Candidate starts
+     * are every {@code stepMinutes} from opening time and never in the past.
+     *
+     * @throws IllegalStateException while the schedule index is still loading (single-node mode only)
+     */
+    public List<FreeSlotDTO> findFreeSlots(List<Long> doctorIds, LocalDate from, LocalDate to,
+                                           int durationMinutes, int stepMinutes, int limit) {
+        if (doctorIds == null || doctorIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one doctor is required.");
+        }
+        if (durationMinutes <= 0 || stepMinutes <= 0 || stepMinutes % SLOT_MINUTES != 0) {
+            throw new IllegalArgumentException("Duration must be positive and step a multiple of " + SLOT_MINUTES + " minutes.");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new IllegalArgumentException("Date range must be ordered and at most " + MAX_DAYS + " days long.");
+        }
+
+        int length = (durationMinutes + SLOT_MINUTES - 1) / SLOT_MINUTES;
+        int step = stepMinutes / SLOT_MINUTES;
+        LocalDateTime now = LocalDateTime.now();
+        List<FreeSlotDTO> freeSlots = new ArrayList<>(limit);
+        Comparator<FreeSlotDTO> byStart = Comparator.comparing(FreeSlotDTO::getStartTime).thenComparing(FreeSlotDTO::getDoctorId);
+
+        LocalDate firstDay = from.isBefore(now.toLocalDate()) ? now.toLocalDate() : from;
+        FreeStartSlots schedule;
+        if (bookingLocks.isDistributed()) {
+            schedule = fromDatabase(doctorIds, firstDay, to);
+        } else if (scheduleIndex.isReady()) {
+            schedule = scheduleIndex::freeStartSlots;
+        } else {
+            throw new IllegalStateException("Appointment schedule is still loading; try again shortly.");
+        }
+        for (LocalDate day = firstDay; !day.isAfter(to) && freeSlots.size() < limit; day = day.plusDays(1)) {
+            if (closedDays.contains(day.getDayOfWeek())) {
+                continue;
+            }
+            int firstSlot = openingSlot;
+            if (day.equals(now.toLocalDate())) {
+                // First grid start not before now
+                int nowSlot = (now.toLocalTime().toSecondOfDay() + SLOT_MINUTES * 60 - 1) / (SLOT_MINUTES * 60);
+                firstSlot += (Math.max(0, nowSlot - openingSlot) + step - 1) / step * step;
+            }
+
+            // Each doctor's earliest starts of the day, merged by time
+            List<FreeSlotDTO> dayFreeSlots = new ArrayList<>();
+            int remaining = limit - freeSlots.size();
+            for (Long doctorId : doctorIds) {
+                for (int slot : schedule.freeStartSlots(doctorId, day, firstSlot, closingSlot, length, step, remaining)) {
+                    LocalDateTime startTime = day.atStartOfDay().plusMinutes((long) slot * SLOT_MINUTES);
+                    dayFreeSlots.add(new FreeSlotDTO(doctorId, startTime, startTime.plusMinutes(durationMinutes)));
+                }
+            }
+            dayFreeSlots.sort(byStart);
+            freeSlots.addAll(dayFreeSlots.subList(0, Math.min(remaining, dayFreeSlots.size())));
+        }
+        return freeSlots;
+    }
+
+    // Busy bitmaps of the given doctors over [firstDay, lastDay], built from one database query
+    private FreeStartSlots fromDatabase(List<Long> doctorIds, LocalDate firstDay, LocalDate lastDay) {
+        Map<Long, NavigableMap<LocalDate, BitSet>> busyByDoctor = new HashMap<>();
+        if (!firstDay.isAfter(lastDay)) {
+            for (AppointmentSlotDTO slot : appointmentRepository.findScheduledSlotsForDoctorsBetween(
+                    doctorIds, firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay())) {
+                AppointmentScheduleIndex.markBusy(busyByDoctor.computeIfAbsent(slot.getDoctorId(), id -> new TreeMap<>()),
+                        slot.getStartTime(), slot.getEndTime(), true);
+            }
+        }
+        return (doctorId, day, firstSlot, endSlot, length, step, limit) -> {
+            NavigableMap<LocalDate, BitSet> busyByDay = busyByDoctor.get(doctorId);
+            return AppointmentScheduleIndex.freeStartSlots(busyByDay != null ? busyByDay.get(day) : null,
+                    firstSlot, endSlot, length, step, limit);
+        };
+    }
+
+    @FunctionalInterface
+    private interface FreeStartSlots {
+        List<Integer> freeStartSlots(Long doctorId, LocalDate day, int firstSlot, int endSlot, int length, int step, int limit);
+    }
+}
@@ -0,0 +1,97 @@
+package com.clinicapp.backend.service.core;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes bookings per doctor and per patient, so an availability check and the insert that
+ * follows it cannot interleave with another booking for the same doctor or patient.
+ * <p>
+ * In-process, each id maps to one of a fixed set of striped locks. With {@code distributed} enabled
+ * (for multi-node deployments, e.g. behind the relay broker) a transaction-scoped PostgreSQL advisory
+ * lock is taken as well, which covers bookings made on other nodes. Both are held until the surrounding transaction completes. Doctor locks are always
+ * taken before patient locks, from separate stripe sets, so two bookings can't deadlock.
+ */
+@Component
+public class AppointmentBookingLocks {
+
+    // First key of pg_advisory_xact_lock(int, int), keeping these locks apart from any other use
+    private static final int DOCTOR_NAMESPACE = 0x41505044;
+    private static final int PATIENT_NAMESPACE = 0x41505050;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean distributed;
+    private final ReentrantLock[] doctorStripes;
+    private final ReentrantLock[] patientStripes;
+    private final Timer lockWait;
+
+    public AppointmentBookingLocks(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${application.appointments.booking.lock-stripes:64}") int stripes,
+            @Value("${application.appointments.booking.distributed-lock:false}") boolean distributed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.distributed = distributed;
+        this.doctorStripes = newStripes(stripes);
+        this.patientStripes = newStripes(stripes);
+        this.lockWait = Timer.builder("appointments.booking.lock.wait")
+                .description("Time spent waiting for the doctor and patient booking locks")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether bookings may be made on other nodes, so this node's in-memory schedule can be stale.
+     */
+    public boolean isDistributed() {
+        return distributed;
+    }
+
+    /**
+     * Locks the doctor and the patient until the current transaction commits or rolls back. Call
+     * it inside the booking transaction, before checking availability.
+     */
+    public void lockForBooking(Long doctorId, Long patientId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Booking locks must be taken inside a transaction");
+        }
+        long start = System.nanoTime();
+        ReentrantLock doctorLock = stripe(doctorStripes, doctorId);
+        ReentrantLock patientLock = stripe(patientStripes, patientId);
+        doctorLock.lock();
+        patientLock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // Runs after the afterCommit callbacks, so the schedule index is current before the next booking
+                patientLock.unlock();
+                doctorLock.unlock();
+            }
+        });
+        if (distributed) {
+            // Released by PostgreSQL when the transaction ends
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, ?)", rs -> null, DOCTOR_NAMESPACE, Long.hashCode(doctorId));
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, ?)", rs -> null, PATIENT_NAMESPACE, Long.hashCode(patientId));
+        }
+        lockWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static ReentrantLock stripe(ReentrantLock[] stripes, Long id) {
+        return stripes[Math.floorMod(Long.hashCode(id), stripes.length)];
+    }
+
+    private static ReentrantLock[] newStripes(int count) {
+        ReentrantLock[] stripes = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        return stripes;
+    }
+}
@@ -0,0 +1,325 @@
+package com.clinicapp.backend.service.core;
+
+import com.clinicapp.backend.dto.core.AppointmentSlotDTO;
+import com.clinicapp.backend.model.core.Appointment;
+import com.clinicapp.backend.model.core.AppointmentStatus;
+import com.clinicapp.backend.repository.core.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of SCHEDULED appointment time windows, kept per doctor and sorted by start time.
+ * <p>
+ * Seeded once from the database when the application is ready and then kept current by
+ * {@link AppointmentService} after each create, update or cancel commits. Overlap checks are
+ * answered with a bounded range scan over a {@link TreeSet}, without a database round-trip.
+ * <p>
+ * Each doctor also has a {@link BitSet} per day with one bit per {@value #SLOT_MINUTES}-minute slot,
+ * set while any SCHEDULED appointment touches that slot, for finding free time without scanning.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentScheduleIndex {
+
+    public static final int SLOT_MINUTES = 5;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    // Slots that ended longer ago than this are dropped; new bookings always lie in the future
+    private static final Duration RETENTION = Duration.ofHours(24);
+
+    private final AppointmentRepository appointmentRepository;
+
+    private final Map<Long, DoctorSchedule> schedulesByDoctor = new ConcurrentHashMap<>();
+    private final Map<Long, Slot> slotsByAppointment = new ConcurrentHashMap<>();
+    // Appointments created, changed or cancelled before the load finished; their snapshot rows may be stale
+    private final Set<Long> changedBeforeReady = ConcurrentHashMap.newKeySet();
+    // Makes "was it changed?" and "add the snapshot row" atomic against committed changes during the load
+    private final Object loadLock = new Object();
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<AppointmentSlotDTO> slots = appointmentRepository.findScheduledSlotsEndingAfter(LocalDateTime.now().minus(RETENTION));
+        for (AppointmentSlotDTO dto : slots) {
+            synchronized (loadLock) {
+                // A change that committed after the snapshot was taken is newer, including a cancellation
+                if (!changedBeforeReady.contains(dto.getAppointmentId())) {
+                    add(new Slot(dto.getAppointmentId(), dto.getDoctorId(), dto.getStartTime(), dto.getEndTime()));
+                }
+            }
+        }
+        synchronized (loadLock) {
+            ready = true;
+            changedBeforeReady.clear();
+        }
+        log.info("Appointment schedule index loaded with {} scheduled appointments for {} doctors",
+                slotsByAppointment.size(), schedulesByDoctor.size());
+    }
+
+    /**
+     * Whether the index has been seeded and can answer overlap checks.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Checks whether the doctor has a SCHEDULED appointment overlapping {@code [startTime, endTime)}.
+     *
+     * @param excludeAppointmentId appointment to ignore (the one being updated), or null for new appointments
+     */
+    public boolean hasOverlap(Long doctorId, LocalDateTime startTime, LocalDateTime endTime, Long excludeAppointmentId) {
+        DoctorSchedule schedule = schedulesByDoctor.get(doctorId);
+        return schedule != null && schedule.hasOverlap(startTime, endTime, excludeAppointmentId);
+    }
+
+    /**
+     * Start slots (slot numbers within the day) at which the doctor is free for {@code length}
+     * consecutive slots, trying {@code firstSlot}, {@code firstSlot + step}, ... while the whole
+     * run ends by {@code endSlot}. At most {@code limit} are returned.
+     */
+    public List<Integer> freeStartSlots(Long doctorId, LocalDate day, int firstSlot, int endSlot, int length, int step, int limit) {
+        DoctorSchedule schedule = schedulesByDoctor.get(doctorId);
+        if (schedule == null) {
+            return freeStartSlots(null, firstSlot, endSlot, length, step, limit);
+        }
+        return schedule.freeStartSlots(day, firstSlot, endSlot, length, step, limit);
+    }
+
+    /**
+     * Records the saved state of an appointment. Inside a transaction the index is only touched
+     * once the transaction commits, so rolled back bookings never become visible.
+     */
+    public void onAppointmentSaved(Appointment appointment) {
+        // Capture the values now; the entity may be detached by the time the callback runs
+        Long appointmentId = appointment.getId();
+        Slot slot = appointment.getStatus() == AppointmentStatus.SCHEDULED
+                ? new Slot(appointmentId, appointment.getDoctor().getId(), appointment.getStartTime(), appointment.getEndTime())
+                : null;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(appointmentId, slot);
+                }
+            });
+        } else {
+            apply(appointmentId, slot);
+        }
+    }
+
+    private void apply(Long appointmentId, Slot slot) {
+        if (!ready) {
+            synchronized (loadLock) {
+                if (!ready) {
+                    changedBeforeReady.add(appointmentId);
+                }
+                applyNow(appointmentId, slot);
+            }
+            return;
+        }
+        applyNow(appointmentId, slot);
+    }
+
+    private void applyNow(Long appointmentId, Slot slot) {
+        remove(appointmentId);
+        if (slot != null) {
+            add(slot);
+        }
+    }
+
+    private void add(Slot slot) {
+        DoctorSchedule schedule = schedulesByDoctor.computeIfAbsent(slot.doctorId(), id -> new DoctorSchedule());
+        slotsByAppointment.put(slot.appointmentId(), slot);
+        schedule.add(slot);
+    }
+
+    private void remove(Long appointmentId) {
+        Slot previous = slotsByAppointment.remove(appointmentId);
+        if (previous != null) {
+            DoctorSchedule schedule = schedulesByDoctor.get(previous.doctorId());
+            if (schedule != null) {
+                schedule.remove(previous);
+            }
+        }
+    }
+
+    /**
+     * Start slots within {@code busy} (null for a day without appointments) as described for
+     * {@link #freeStartSlots(Long, LocalDate, int, int, int, int, int)}.
+     */
+    static List<Integer> freeStartSlots(BitSet busy, int firstSlot, int endSlot, int length, int step, int limit) {
+        if (busy == null) {
+            busy = new BitSet(0);
+        }
+        List<Integer> starts = new ArrayList<>();
+        int slot = firstSlot;
+        while (slot + length <= endSlot && starts.size() < limit) {
+            int nextBusy = busy.nextSetBit(slot);
+            if (nextBusy < 0 || nextBusy >= slot + length) {
+                starts.add(slot);
+                slot += step;
+            } else {
+                // Skip past the busy run, staying on the step grid
+                int free = busy.nextClearBit(nextBusy);
+                slot += (free - slot + step - 1) / step * step;
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Sets or clears every slot that {@code [startTime, endTime)} touches, day by day.
+     */
+    static void markBusy(NavigableMap<LocalDate, BitSet> busyByDay, LocalDateTime startTime, LocalDateTime endTime, boolean busy) {
+        for (LocalDate day = startTime.toLocalDate(); day.atStartOfDay().isBefore(endTime); day = day.plusDays(1)) {
+            int from = day.equals(startTime.toLocalDate()) ? slotOf(startTime) : 0;
+            int to = day.equals(endTime.toLocalDate()) ? slotAfter(endTime) : SLOTS_PER_DAY;
+            if (from >= to) {
+                continue;
+            }
+            if (busy) {
+                busyByDay.computeIfAbsent(day, d -> new BitSet(SLOTS_PER_DAY)).set(from, to);
+            } else {
+                BitSet bits = busyByDay.get(day);
+                if (bits != null) {
+                    bits.clear(from, to);
+                    if (bits.isEmpty()) {
+                        busyByDay.remove(day);
+                    }
+                }
+            }
+        }
+    }
+
+    // Slot containing the given time
+    private static int slotOf(LocalDateTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    // First slot starting at or after the given time
+    private static int slotAfter(LocalDateTime time) {
+        int seconds = time.toLocalTime().toSecondOfDay() + (time.getNano() > 0 ? 1 : 0);
+        return (seconds + SLOT_MINUTES * 60 - 1) / (SLOT_MINUTES * 60);
+    }
+
+    private record Slot(Long appointmentId, Long doctorId, LocalDateTime startTime, LocalDateTime endTime) {
+    }
+
+    private static final Comparator<Slot> BY_START_TIME =
+            Comparator.comparing(Slot::startTime).thenComparing(Slot::appointmentId);
+
+    /**
+     * Sorted slots of a single doctor. All access is synchronized on the instance.
+     */
+    private final class DoctorSchedule {
+
+        private final NavigableSet<Slot> slots = new TreeSet<>(BY_START_TIME);
+        // Busy slots per day; a day without an entry has no appointments
+        private final NavigableMap<LocalDate, BitSet> busyByDay = new TreeMap<>();
+        // Count of stored slots per length; the largest key bounds how far before startTime an
+        // overlapping slot can begin, and shrinks again once long slots are removed or pruned
+        private final NavigableMap<Duration, Integer> lengths = new TreeMap<>();
+
+        synchronized boolean hasOverlap(LocalDateTime startTime, LocalDateTime endTime, Long excludeAppointmentId) {
+            // Only slots starting in (startTime - longest, endTime) can overlap [startTime, endTime)
+            Slot lower = new Slot(Long.MAX_VALUE, null, startTime.minus(longest()), null);
+            Slot upper = new Slot(Long.MIN_VALUE, null, endTime, null);
+            if (BY_START_TIME.compare(lower, upper) >= 0) {
+                return false;
+            }
+            for (Slot slot : slots.subSet(lower, false, upper, false)) {
+                if (slot.endTime().isAfter(startTime) && !slot.appointmentId().equals(excludeAppointmentId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized void add(Slot slot) {
+            if (slots.add(slot)) {
+                lengths.merge(lengthOf(slot), 1, Integer::sum);
+            }
+            markBusy(slot.startTime(), slot.endTime(), true);
+            pruneExpired();
+        }
+
+        synchronized void remove(Slot slot) {
+            if (!slots.remove(slot)) {
+                return;
+            }
+            forgetLength(slot);
+            // Clear the freed range, then re-mark appointments that share any of its slots
+            markBusy(slot.startTime(), slot.endTime(), false);
+            Slot lower = new Slot(Long.MAX_VALUE, null, slot.startTime().minus(longest()), null);
+            Slot upper = new Slot(Long.MIN_VALUE, null, slot.endTime().plusMinutes(SLOT_MINUTES), null);
+            if (BY_START_TIME.compare(lower, upper) < 0) {
+                for (Slot other : slots.subSet(lower, false, upper, false)) {
+                    if (other.endTime().isAfter(slot.startTime().minusMinutes(SLOT_MINUTES))) {
+                        markBusy(other.startTime(), other.endTime(), true);
+                    }
+                }
+            }
+        }
+
+        synchronized List<Integer> freeStartSlots(LocalDate day, int firstSlot, int endSlot, int length, int step, int limit) {
+            return AppointmentScheduleIndex.freeStartSlots(busyByDay.get(day), firstSlot, endSlot, length, step, limit);
+        }
+
+        private Duration longest() {
+            return lengths.isEmpty() ? Duration.ZERO : lengths.lastKey();
+        }
+
+        private void forgetLength(Slot slot) {
+            lengths.computeIfPresent(lengthOf(slot), (length, count) -> count > 1 ? count - 1 : null);
+        }
+
+        private static Duration lengthOf(Slot slot) {
+            return Duration.between(slot.startTime(), slot.endTime());
+        }
+
+        private void markBusy(LocalDateTime startTime, LocalDateTime endTime, boolean busy) {
+            AppointmentScheduleIndex.markBusy(busyByDay, startTime, endTime, busy);
+        }
+
+        private void pruneExpired() {
+            LocalDateTime cutoff = LocalDateTime.now().minus(RETENTION);
+            busyByDay.headMap(cutoff.toLocalDate()).clear();
+            Iterator<Slot> iterator = slots.iterator();
+            while (iterator.hasNext()) {
+                Slot slot = iterator.next();
+                if (!slot.startTime().isBefore(cutoff)) {
+                    break;
+                }
+                if (slot.endTime().isBefore(cutoff)) {
+                    iterator.remove();
+                    forgetLength(slot);
+                    slotsByAppointment.remove(slot.appointmentId(), slot);
+                }
+            }
+        }
+    }
+}
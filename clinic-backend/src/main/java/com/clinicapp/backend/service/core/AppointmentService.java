@@ -1,6 +1,10 @@
 package com.clinicapp.backend.service.core;
 
 import com.clinicapp.backend.dto.core.AppointmentDTO;
+import com.clinicapp.backend.dto.core.AppointmentSeriesConflictDTO;
+import com.clinicapp.backend.dto.core.AppointmentSeriesDTO;
+import com.clinicapp.backend.dto.core.AppointmentSeriesResultDTO;
+import com.clinicapp.backend.event.AppointmentChangedEvent;
 import com.clinicapp.backend.model.core.Appointment;
 import com.clinicapp.backend.model.core.AppointmentStatus;
 import com.clinicapp.backend.model.core.Patient;
@@ -13,12 +17,25 @@ import com.clinicapp.backend.repository.security.UserRepository;
 import com.clinicapp.backend.service.notification.NotificationService; // Import NotificationService
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,6 +46,10 @@ public class AppointmentService {
     private final PatientRepository patientRepository;
     private final UserRepository userRepository; // To fetch doctor details
     private final NotificationService notificationService; // Inject NotificationService
+    private final AppointmentScheduleIndex scheduleIndex; // In-memory index of scheduled time windows
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate; // Set-based conflict check for series bookings
+    private final AppointmentBookingLocks bookingLocks; // Held from the availability checks until commit
 
     private static final long CANCELLATION_NOTICE_HOURS = 24; // Configurable notice period
 
@@ -50,6 +71,7 @@ public class AppointmentService {
                 .doctorLastName(appointment.getDoctor().getLastName())
                 .createdAt(appointment.getCreatedAt())
                 .updatedAt(appointment.getUpdatedAt())
+                .version(appointment.getVersion())
                 .build();
     }
 
@@ -73,7 +95,11 @@ public class AppointmentService {
 
     private void checkDoctorAvailability(User doctor, LocalDateTime startTime, LocalDateTime endTime, Long excludeAppointmentId) {
          boolean overlaps;
-         if (excludeAppointmentId != null) {
+         if (scheduleIndex.isReady() && !bookingLocks.isDistributed()) {
+             // Answered from memory; the repository queries below serve until the index is loaded, and
+             // always when other nodes may book too, since this node's index doesn't see their bookings
+             overlaps = scheduleIndex.hasOverlap(doctor.getId(), startTime, endTime, excludeAppointmentId);
+         } else if (excludeAppointmentId != null) {
              overlaps = appointmentRepository.existsOverlappingAppointmentForDoctor(doctor, startTime, endTime, excludeAppointmentId);
          } else {
              overlaps = appointmentRepository.existsOverlappingAppointmentForDoctor(doctor, startTime, endTime);
@@ -83,13 +109,22 @@ public class AppointmentService {
         }
     }
 
+    // Rejects changes made against an outdated copy; concurrent changes after this are caught by @Version on flush
+    private void checkVersion(Appointment appointment, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(appointment.getVersion())) {
+            throw new OptimisticLockingFailureException("Appointment " + appointment.getId() + " was modified by someone else; reload and retry.");
+        }
+    }
+
     private void checkPatientAvailability(Patient patient, LocalDateTime startTime, Long excludeAppointmentId) {
         LocalDate appointmentDate = startTime.toLocalDate();
+        LocalDateTime dayStart = appointmentDate.atStartOfDay();
+        LocalDateTime nextDayStart = appointmentDate.plusDays(1).atStartOfDay();
         boolean hasOtherAppointment;
          if (excludeAppointmentId != null) {
-             hasOtherAppointment = appointmentRepository.existsOtherAppointmentForPatientOnDate(patient, appointmentDate, excludeAppointmentId);
+             hasOtherAppointment = appointmentRepository.existsOtherAppointmentForPatientInRange(patient, dayStart, nextDayStart, excludeAppointmentId);
          } else {
-             hasOtherAppointment = appointmentRepository.existsOtherAppointmentForPatientOnDate(patient, appointmentDate);
+             hasOtherAppointment = appointmentRepository.existsOtherAppointmentForPatientInRange(patient, dayStart, nextDayStart);
          }
         if (hasOtherAppointment) {
             throw new IllegalArgumentException("Patient already has an appointment scheduled on this day.");
@@ -128,17 +163,23 @@ public class AppointmentService {
      }
 
      @Transactional(readOnly = true)
-     public List<Appointment> getAppointmentsForDoctorOnDate(Long doctorId, LocalDate date) {
+     public List<AppointmentDTO> getAppointmentsForDoctorOnDate(Long doctorId, LocalDate date) {
          // Use the new repository method with JOIN FETCH for patient
          // No need to fetch Doctor User object first as repo method uses doctorId
-         return appointmentRepository.findByDoctorIdAndDateWithDetails(doctorId, date);
-         // No DTO mapping here as the controller expects List<Appointment>
+         // Mapped to DTOs here: serializing the entities would also pull in each patient's lazy clinical text
+         return appointmentRepository.findByDoctorIdAndStartTimeRangeWithDetails(doctorId, date.atStartOfDay(), date.plusDays(1).atStartOfDay())
+                 .stream()
+                 .map(this::mapToDTO)
+                 .collect(Collectors.toList());
      }
 
      @Transactional(readOnly = true)
-     public List<Appointment> getAppointmentsForDate(LocalDate date) {
+     public List<AppointmentDTO> getAppointmentsForDate(LocalDate date) {
          // Use the new repository method with JOIN FETCH
-         return appointmentRepository.findByAppointmentDateWithDetails(date);
+         return appointmentRepository.findByStartTimeRangeWithDetails(date.atStartOfDay(), date.plusDays(1).atStartOfDay())
+                 .stream()
+                 .map(this::mapToDTO)
+                 .collect(Collectors.toList());
      }
 
     @Transactional(readOnly = true)
@@ -158,6 +199,7 @@ public class AppointmentService {
                 .orElseThrow(() -> new EntityNotFoundException("Doctor not found with id: " + appointmentDTO.getDoctorId()));
 
         validateDoctor(doctor);
+        bookingLocks.lockForBooking(doctor.getId(), patient.getId());
         checkDoctorAvailability(doctor, appointmentDTO.getStartTime(), appointmentDTO.getEndTime(), null);
         checkPatientAvailability(patient, appointmentDTO.getStartTime(), null);
 
@@ -173,6 +215,9 @@ public class AppointmentService {
                 .build();
 
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        scheduleIndex.onAppointmentSaved(savedAppointment);
+        eventPublisher.publishEvent(new AppointmentChangedEvent(
+                savedAppointment.getId(), null, AppointmentChangedEvent.State.of(savedAppointment)));
 
         // --- Send Notifications ---
         // Notify Doctor
@@ -202,8 +247,10 @@ public class AppointmentService {
         if (existingAppointment.getStatus() == AppointmentStatus.COMPLETED || existingAppointment.getStatus() == AppointmentStatus.CANCELLED) {
              throw new IllegalArgumentException("Cannot update a completed or cancelled appointment.");
         }
+        checkVersion(existingAppointment, appointmentDTO.getVersion());
 
         validateAppointmentTiming(appointmentDTO.getStartTime(), appointmentDTO.getEndTime());
+        AppointmentChangedEvent.State previousState = AppointmentChangedEvent.State.of(existingAppointment);
 
         Patient patient = patientRepository.findById(appointmentDTO.getPatientId())
                 .orElseThrow(() -> new EntityNotFoundException("Patient not found with id: " + appointmentDTO.getPatientId()));
@@ -211,6 +258,7 @@ public class AppointmentService {
                 .orElseThrow(() -> new EntityNotFoundException("Doctor not found with id: " + appointmentDTO.getDoctorId()));
 
         validateDoctor(doctor);
+        bookingLocks.lockForBooking(doctor.getId(), patient.getId());
         // Check availability excluding the current appointment being updated
         checkDoctorAvailability(doctor, appointmentDTO.getStartTime(), appointmentDTO.getEndTime(), id);
         checkPatientAvailability(patient, appointmentDTO.getStartTime(), id);
@@ -226,6 +274,9 @@ public class AppointmentService {
         // updatedAt handled by @PreUpdate
 
         Appointment updatedAppointment = appointmentRepository.save(existingAppointment);
+        scheduleIndex.onAppointmentSaved(updatedAppointment);
+        eventPublisher.publishEvent(new AppointmentChangedEvent(
+                updatedAppointment.getId(), previousState, AppointmentChangedEvent.State.of(updatedAppointment)));
 
         // --- Send Notifications ---
         // Notify Doctor
@@ -263,8 +314,12 @@ public class AppointmentService {
                      "Appointment cannot be cancelled within " + CANCELLATION_NOTICE_HOURS + " hours of start time.");
          }
 
+         AppointmentChangedEvent.State previousState = AppointmentChangedEvent.State.of(appointment);
          appointment.setStatus(AppointmentStatus.CANCELLED);
          Appointment cancelledAppointment = appointmentRepository.save(appointment);
+         scheduleIndex.onAppointmentSaved(cancelledAppointment);
+         eventPublisher.publishEvent(new AppointmentChangedEvent(
+                 cancelledAppointment.getId(), previousState, AppointmentChangedEvent.State.of(cancelledAppointment)));
  
          // --- Send Notifications ---
          // Notify Doctor
@@ -283,6 +338,138 @@ public class AppointmentService {
          return mapToDTO(cancelledAppointment);
      }
 
+    /**
+     * Books a recurring series. Every occurrence is checked against the doctor's and the patient's
+     * existing appointments in one query; the ones without conflicts are inserted as a JDBC batch
+     * and the doctor gets a single summary notification. Conflicting occurrences are reported, not booked.
+     */
+    @Transactional
+    public AppointmentSeriesResultDTO createAppointmentSeries(AppointmentSeriesDTO seriesDTO) {
+        validateAppointmentTiming(seriesDTO.getStartTime(), seriesDTO.getEndTime());
+        if (seriesDTO.getOccurrences() < 1 || seriesDTO.getOccurrences() > AppointmentSeriesDTO.MAX_OCCURRENCES) {
+            throw new IllegalArgumentException("A series must have between 1 and " + AppointmentSeriesDTO.MAX_OCCURRENCES + " occurrences.");
+        }
+        if (seriesDTO.getIntervalWeeks() < 1) {
+            throw new IllegalArgumentException("Series interval must be at least one week.");
+        }
+
+        Patient patient = patientRepository.findById(seriesDTO.getPatientId())
+                .orElseThrow(() -> new EntityNotFoundException("Patient not found with id: " + seriesDTO.getPatientId()));
+        User doctor = userRepository.findById(seriesDTO.getDoctorId())
+                .orElseThrow(() -> new EntityNotFoundException("Doctor not found with id: " + seriesDTO.getDoctorId()));
+        validateDoctor(doctor);
+        bookingLocks.lockForBooking(doctor.getId(), patient.getId());
+
+        List<LocalDateTime> starts = seriesStartTimes(seriesDTO);
+        Duration length = Duration.between(seriesDTO.getStartTime(), seriesDTO.getEndTime());
+        Map<Integer, AppointmentSeriesConflictDTO> conflicts = findSeriesConflicts(doctor.getId(), patient.getId(), starts, length);
+
+        List<Appointment> appointments = new ArrayList<>(starts.size() - conflicts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            if (!conflicts.containsKey(i)) {
+                appointments.add(Appointment.builder()
+                        .patient(patient)
+                        .doctor(doctor)
+                        .startTime(starts.get(i))
+                        .endTime(starts.get(i).plus(length))
+                        .room(seriesDTO.getRoom())
+                        .status(AppointmentStatus.SCHEDULED)
+                        .notes(seriesDTO.getNotes())
+                        .build());
+            }
+        }
+
+        // Sequence ids let Hibernate send these as batches of hibernate.jdbc.batch_size
+        List<Appointment> savedAppointments = appointmentRepository.saveAll(appointments);
+        for (Appointment savedAppointment : savedAppointments) {
+            scheduleIndex.onAppointmentSaved(savedAppointment);
+            eventPublisher.publishEvent(new AppointmentChangedEvent(
+                    savedAppointment.getId(), null, AppointmentChangedEvent.State.of(savedAppointment)));
+        }
+
+        if (!savedAppointments.isEmpty()) {
+            DateTimeFormatter dateFormat = DateTimeFormatter.ISO_LOCAL_DATE;
+            notificationService.createNotification(
+                    doctor,
+                    Notification.NotificationType.APPOINTMENT_MODIFIED,
+                    "Appointment Series Scheduled",
+                    String.format("%d appointments with %s %s from %s to %s%s",
+                            savedAppointments.size(), patient.getFirstName(), patient.getLastName(),
+                            savedAppointments.get(0).getStartTime().format(dateFormat),
+                            savedAppointments.get(savedAppointments.size() - 1).getStartTime().format(dateFormat),
+                            conflicts.isEmpty() ? "." : String.format(" (%d dates skipped due to conflicts).", conflicts.size())),
+                    "APPOINTMENT",
+                    savedAppointments.get(0).getId()
+            );
+        }
+
+        return AppointmentSeriesResultDTO.builder()
+                .booked(savedAppointments.stream().map(this::mapToDTO).collect(Collectors.toList()))
+                .conflicts(new ArrayList<>(conflicts.values()))
+                .build();
+    }
+
+    // Start times of every occurrence, in order
+    private List<LocalDateTime> seriesStartTimes(AppointmentSeriesDTO seriesDTO) {
+        LocalDateTime first = seriesDTO.getStartTime();
+        Set<DayOfWeek> days = seriesDTO.getDaysOfWeek() == null || seriesDTO.getDaysOfWeek().isEmpty()
+                ? EnumSet.of(first.getDayOfWeek())
+                : EnumSet.copyOf(seriesDTO.getDaysOfWeek()); // Iterates Monday to Sunday
+        LocalDate firstWeek = first.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+
+        List<LocalDateTime> starts = new ArrayList<>(seriesDTO.getOccurrences());
+        for (LocalDate week = firstWeek; starts.size() < seriesDTO.getOccurrences(); week = week.plusWeeks(seriesDTO.getIntervalWeeks())) {
+            for (DayOfWeek day : days) {
+                LocalDate date = week.plusDays(day.ordinal());
+                if (!date.isBefore(first.toLocalDate()) && starts.size() < seriesDTO.getOccurrences()) {
+                    starts.add(date.atTime(first.toLocalTime()));
+                }
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Checks all occurrences at once: the occurrence windows are passed as arrays and joined against
+     * scheduled appointments of the doctor (overlap) and of the patient (same day), which uses the
+     * (doctor_id, start_time) and (patient_id, start_time) indexes. Keyed by occurrence index.
+     */
+    private Map<Integer, AppointmentSeriesConflictDTO> findSeriesConflicts(Long doctorId, Long patientId,
+                                                                           List<LocalDateTime> starts, Duration length) {
+        Timestamp[] startTimes = starts.stream().map(Timestamp::valueOf).toArray(Timestamp[]::new);
+        Timestamp[] endTimes = starts.stream().map(start -> Timestamp.valueOf(start.plus(length))).toArray(Timestamp[]::new);
+        Map<Integer, AppointmentSeriesConflictDTO> conflicts = new TreeMap<>();
+        jdbcTemplate.query(
+                "SELECT o.idx, a.id, (a.doctor_id = ? AND a.start_time < o.end_time AND a.end_time > o.start_time) AS doctor_busy "
+                        + "FROM unnest(?::timestamp[], ?::timestamp[]) WITH ORDINALITY AS o(start_time, end_time, idx) "
+                        + "JOIN appointment a ON a.status = 'SCHEDULED' AND ("
+                        + "(a.doctor_id = ? AND a.start_time < o.end_time AND a.end_time > o.start_time) "
+                        + "OR (a.patient_id = ? AND a.start_time >= date_trunc('day', o.start_time) "
+                        + "AND a.start_time < date_trunc('day', o.start_time) + interval '1 day')) "
+                        + "ORDER BY o.idx, doctor_busy DESC",
+                ps -> {
+                    ps.setLong(1, doctorId);
+                    ps.setArray(2, ps.getConnection().createArrayOf("timestamp", startTimes));
+                    ps.setArray(3, ps.getConnection().createArrayOf("timestamp", endTimes));
+                    ps.setLong(4, doctorId);
+                    ps.setLong(5, patientId);
+                },
+                rs -> {
+                    int index = rs.getInt("idx") - 1; // WITH ORDINALITY counts from 1
+                    // One conflict per occurrence is enough; a doctor clash sorts first
+                    if (!conflicts.containsKey(index)) {
+                        conflicts.put(index, new AppointmentSeriesConflictDTO(
+                                starts.get(index),
+                                starts.get(index).plus(length),
+                                rs.getBoolean("doctor_busy")
+                                        ? AppointmentSeriesConflictDTO.Reason.DOCTOR_BUSY
+                                        : AppointmentSeriesConflictDTO.Reason.PATIENT_BOOKED,
+                                rs.getLong("id")));
+                    }
+                });
+        return conflicts;
+    }
+
 
     // Note: Deleting appointments might not be desirable; cancelling is usually preferred.
     // If deletion is needed, implement a delete method similar to PatientService.
@@ -1,6 +1,7 @@
 package com.clinicapp.backend.service.core;
 
 import com.clinicapp.backend.dto.core.InvoiceDTO;
+import com.clinicapp.backend.event.InvoiceChangedEvent;
 import com.clinicapp.backend.model.core.Appointment;
 import com.clinicapp.backend.model.core.Invoice;
 import com.clinicapp.backend.model.core.InvoiceStatus;
@@ -10,6 +11,7 @@ import com.clinicapp.backend.repository.core.InvoiceRepository;
 import com.clinicapp.backend.repository.core.PatientRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +27,7 @@ public class InvoiceService {
     private final InvoiceRepository invoiceRepository;
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository; // Optional, if linking invoices to appointments
+    private final ApplicationEventPublisher eventPublisher;
 
     // --- Mapping Logic ---
 
@@ -124,6 +127,7 @@ public class InvoiceService {
                 .build();
 
         Invoice savedInvoice = invoiceRepository.save(invoice);
+        eventPublisher.publishEvent(new InvoiceChangedEvent(savedInvoice.getId(), null, savedInvoice.getStatus()));
         return mapToDTO(savedInvoice);
     }
 
@@ -151,6 +155,8 @@ public class InvoiceService {
              }
          }
 
+        InvoiceStatus previousStatus = existingInvoice.getStatus();
+
         // Update fields
         existingInvoice.setPatient(patient);
         existingInvoice.setAppointment(appointment);
@@ -162,6 +168,7 @@ public class InvoiceService {
         // updatedAt handled by @PreUpdate
 
         Invoice updatedInvoice = invoiceRepository.save(existingInvoice);
+        eventPublisher.publishEvent(new InvoiceChangedEvent(updatedInvoice.getId(), previousStatus, updatedInvoice.getStatus()));
         return mapToDTO(updatedInvoice);
     }
 
@@ -173,18 +180,20 @@ public class InvoiceService {
          // Add any status transition validation if needed
          // e.g., cannot move from PAID back to DRAFT
 
+         InvoiceStatus previousStatus = invoice.getStatus();
          invoice.setStatus(newStatus);
          Invoice updatedInvoice = invoiceRepository.save(invoice);
+         eventPublisher.publishEvent(new InvoiceChangedEvent(updatedInvoice.getId(), previousStatus, updatedInvoice.getStatus()));
          return mapToDTO(updatedInvoice);
      }
 
 
     @Transactional
     public void deleteInvoice(Long id) {
-        if (!invoiceRepository.existsById(id)) {
-            throw new EntityNotFoundException("Invoice not found with id: " + id);
-        }
+        Invoice invoice = invoiceRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Invoice not found with id: " + id));
         // Consider implications before allowing deletion (e.g., if paid)
-        invoiceRepository.deleteById(id);
+        invoiceRepository.delete(invoice);
+        eventPublisher.publishEvent(new InvoiceChangedEvent(id, invoice.getStatus(), null));
     }
 }
\ No newline at end of file
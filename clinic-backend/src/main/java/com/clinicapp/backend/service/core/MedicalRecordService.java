@@ -0,0 +1,57 @@
+package com.clinicapp.backend.service.core;
+
+import com.clinicapp.backend.model.core.Appointment;
+import com.clinicapp.backend.model.core.Invoice;
+import com.clinicapp.backend.model.core.Patient;
+import com.clinicapp.backend.model.core.Prescription;
+import com.clinicapp.backend.repository.core.AppointmentRepository;
+import com.clinicapp.backend.repository.core.InvoiceRepository;
+import com.clinicapp.backend.repository.core.PatientRepository;
+import com.clinicapp.backend.repository.core.PrescriptionRepository;
+import com.clinicapp.backend.service.utils.PdfGenerationService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class MedicalRecordService {
+
+    private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final PdfGenerationService pdfGenerationService;
+    private final EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public boolean patientExists(Long patientId) {
+        return patientRepository.existsById(patientId);
+    }
+
+    /**
+     * Writes the patient's medical record PDF to the given stream. Appointments, prescriptions and
+     * invoices are read through server-side cursors and detached as they are rendered, so neither
+     * the persistence context nor the document grows on the heap with the size of the record.
+     */
+    @Transactional(readOnly = true)
+    public void writeMedicalRecordPdf(Long patientId, OutputStream outputStream) throws IOException {
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new EntityNotFoundException("Patient not found with id: " + patientId));
+        try (Stream<Appointment> appointments = appointmentRepository.streamByPatientIdWithDoctor(patientId);
+             Stream<Prescription> prescriptions = prescriptionRepository.streamByPatientIdWithDoctor(patientId);
+             Stream<Invoice> invoices = invoiceRepository.streamByPatientId(patientId)) {
+            pdfGenerationService.generateMedicalRecordPdf(patient,
+                    appointments.peek(entityManager::detach),
+                    prescriptions.peek(entityManager::detach),
+                    invoices.peek(entityManager::detach),
+                    outputStream);
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.clinicapp.backend.service.core;
+
+import com.clinicapp.backend.dto.core.PatientSummaryDTO;
+import com.clinicapp.backend.event.PatientChangedEvent;
+import com.clinicapp.backend.repository.core.PatientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over patient names, phone numbers and emails.
+ * <p>
+ * Every word is padded with two start markers before being cut into trigrams, so a query that is
+ * a prefix of a word matches all of its trigrams and ranks as high as an exact match, while a
+ * misspelt query still shares most of its trigrams. Trigrams touching a word start weigh double,
+ * which favours prefix matches over matches in the middle of a word.
+ * <p>
+ * Patients are numbered with dense internal doc ids in insertion order, so posting lists are
+ * sorted int arrays that only ever grow at the end. An update re-adds the patient under a new
+ * doc id and tombstones the old one; tombstoned ids are compacted away once they make up a
+ * quarter of the index. Seeded when the application is ready and kept current from
+ * {@link PatientChangedEvent}s after each commit. Those events are local to this node, so a
+ * scheduled refresh also re-indexes patients whose {@code updatedAt} moved since the previous one;
+ * with several nodes, a patient changed elsewhere becomes searchable within one refresh interval.
+ * Patients deleted on another node stay indexed until restart, but the search results are
+ * hydrated from the database, which drops them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PatientSearchIndex {
+
+    // A patient must contain at least this share of the query's (weighted) trigrams...
+    private static final double MIN_SCORE = 0.5;
+    // ...and miss no more than this much weight per query word; one typo breaks up to three trigrams
+    private static final int TYPO_ALLOWANCE = 3;
+    private static final int ANCHORED_WEIGHT = 2;
+    private static final int INTERIOR_WEIGHT = 1;
+    private static final char WORD_START = '\u0001';
+    private static final int COMPACTION_MIN_DOCS = 1024;
+    // Searches are CPU-bound, so more concurrent score buffers than cores would only sit idle
+    private static final int SCORE_BUFFERS = Runtime.getRuntime().availableProcessors();
+    // Re-read this far behind the previous refresh, covering clock skew between nodes and commits
+    // that landed after their updatedAt was stamped
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(2);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    // Separators inside phone numbers ("+1 (555) 123-4567") are dropped so the digits form one word
+    private static final Pattern DIGIT_SEPARATORS = Pattern.compile("(?<=\\d)[\\s\\-().]+(?=\\d)");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+
+    private final PatientRepository patientRepository;
+
+    // Score accumulators, zeroed after each search and handed back; at most SCORE_BUFFERS are kept
+    private final BlockingQueue<int[]> scoreBuffers = new ArrayBlockingQueue<>(SCORE_BUFFERS);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postingsByTrigram = new HashMap<>();
+    private final Map<Long, Integer> docByPatient = new HashMap<>();
+    private final BitSet deletedDocs = new BitSet();
+    private long[] patientByDoc = new long[1024];
+    private int docCount = 0;
+    private volatile boolean ready = false;
+    private volatile LocalDateTime refreshedAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        refreshedAt = LocalDateTime.now();
+        try (Stream<PatientSummaryDTO> summaries = patientRepository.streamAllSummaries()) {
+            summaries.forEach(summary -> {
+                lock.writeLock().lock();
+                try {
+                    // Patients indexed by commits that happened while we were loading are newer; keep those
+                    if (!docByPatient.containsKey(summary.getId())) {
+                        add(summary);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        }
+        ready = true;
+        log.info("Patient search index loaded with {} patients and {} trigrams", docByPatient.size(), postingsByTrigram.size());
+    }
+
+    /**
+     * Re-indexes patients changed since the previous refresh, including those changed on other nodes.
+     */
+    @Scheduled(initialDelayString = "${application.patients.search.refresh-interval-ms:60000}",
+               fixedDelayString = "${application.patients.search.refresh-interval-ms:60000}")
+    public void refresh() {
+        if (!ready) {
+            return; // The initial load picks everything up
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<PatientSummaryDTO> changed = patientRepository.findSummariesUpdatedSince(refreshedAt.minus(REFRESH_OVERLAP));
+        changed.forEach(this::index);
+        refreshedAt = startedAt;
+        log.debug("Patient search index refreshed {} changed patients", changed.size());
+    }
+
+    /**
+     * Whether the index has been seeded and can answer searches.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @TransactionalEventListener
+    public void onPatientChanged(PatientChangedEvent event) {
+        if (event.getChangeType() == PatientChangedEvent.ChangeType.DELETED) {
+            remove(event.getPatientId());
+        } else {
+            patientRepository.findSummaryById(event.getPatientId()).ifPresentOrElse(
+                    this::index,
+                    () -> remove(event.getPatientId()));
+        }
+    }
+
+    /**
+     * Adds the patient, or replaces what was indexed for them before.
+     */
+    public void index(PatientSummaryDTO summary) {
+        lock.writeLock().lock();
+        try {
+            tombstone(summary.getId());
+            add(summary);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long patientId) {
+        lock.writeLock().lock();
+        try {
+            tombstone(patientId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the best matching patients, best first.
+     */
+    public List<Long> search(String query, int limit) {
+        Map<Long, Integer> weights = new HashMap<>();
+        List<String> queryWords = words(query);
+        for (String word : queryWords) {
+            // Phone numbers are often typed without their leading digits, so digits get no start bonus
+            boolean anchorable = !DIGITS.matcher(word).matches();
+            for (long trigram : trigrams(word)) {
+                weights.put(trigram, anchorable && isAnchored(trigram) ? ANCHORED_WEIGHT : INTERIOR_WEIGHT);
+            }
+        }
+        if (weights.isEmpty()) {
+            return List.of();
+        }
+        int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        int minScore = Math.max((int) Math.ceil(totalWeight * MIN_SCORE), totalWeight - TYPO_ALLOWANCE * queryWords.size());
+
+        lock.readLock().lock();
+        try {
+            // Rarest trigrams first. Once the weight still to come is below minScore, a doc not seen
+            // yet can no longer qualify, so the remaining (long) lists only add to docs already
+            // touched: by binary search per touched doc, or by a scan when that is cheaper.
+            List<Map.Entry<Postings, Integer>> lists = new ArrayList<>(weights.size());
+            int remainingWeight = 0;
+            for (Map.Entry<Long, Integer> entry : weights.entrySet()) {
+                Postings postings = postingsByTrigram.get(entry.getKey());
+                if (postings != null) {
+                    lists.add(Map.entry(postings, entry.getValue()));
+                    remainingWeight += entry.getValue();
+                }
+            }
+            if (remainingWeight < minScore) {
+                return List.of();
+            }
+            lists.sort(Comparator.comparingInt(entry -> entry.getKey().size));
+
+            int[] scores = takeScoreBuffer();
+            Postings touched = new Postings();
+            try {
+                for (Map.Entry<Postings, Integer> entry : lists) {
+                    Postings postings = entry.getKey();
+                    int weight = entry.getValue();
+                    if (remainingWeight >= minScore) {
+                        for (int i = 0; i < postings.size; i++) {
+                            int doc = postings.docs[i];
+                            if (scores[doc] == 0) {
+                                touched.add(doc);
+                            }
+                            scores[doc] += weight;
+                        }
+                    } else if ((long) touched.size * (32 - Integer.numberOfLeadingZeros(postings.size)) < postings.size) {
+                        for (int i = 0; i < touched.size; i++) {
+                            int doc = touched.docs[i];
+                            if (Arrays.binarySearch(postings.docs, 0, postings.size, doc) >= 0) {
+                                scores[doc] += weight;
+                            }
+                        }
+                    } else {
+                        for (int i = 0; i < postings.size; i++) {
+                            int doc = postings.docs[i];
+                            if (scores[doc] != 0) {
+                                scores[doc] += weight;
+                            }
+                        }
+                    }
+                    remainingWeight -= weight;
+                }
+
+                // Keep the best `limit` hits in a min-heap; ties go to the lower patient id
+                Comparator<Integer> worstFirst = Comparator.<Integer>comparingInt(doc -> scores[doc])
+                        .thenComparing(doc -> patientByDoc[doc], Comparator.reverseOrder());
+                PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, worstFirst);
+                for (int i = 0; i < touched.size; i++) {
+                    int doc = touched.docs[i];
+                    if (scores[doc] < minScore || deletedDocs.get(doc)) {
+                        continue;
+                    }
+                    best.add(doc);
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+
+                Long[] ranked = new Long[best.size()];
+                for (int i = ranked.length - 1; i >= 0; i--) {
+                    ranked[i] = patientByDoc[best.poll()];
+                }
+                return Arrays.asList(ranked);
+            } finally {
+                for (int i = 0; i < touched.size; i++) {
+                    scores[touched.docs[i]] = 0;
+                }
+                scoreBuffers.offer(scores); // Dropped if the pool is already full
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold the read lock, so docCount is stable
+    private int[] takeScoreBuffer() {
+        int[] scores = scoreBuffers.poll();
+        if (scores == null || scores.length < docCount) {
+            scores = new int[docCount + docCount / 4]; // Headroom so steady growth doesn't reallocate each search
+        }
+        return scores;
+    }
+
+    // --- Index maintenance; callers hold the write lock ---
+
+    private void add(PatientSummaryDTO summary) {
+        Set<Long> trigrams = new HashSet<>();
+        for (String field : new String[]{summary.getFirstName(), summary.getLastName(), summary.getPhoneNumber(), summary.getEmail()}) {
+            for (String word : words(field)) {
+                trigrams.addAll(trigrams(word));
+            }
+        }
+        int doc = docCount++;
+        if (doc == patientByDoc.length) {
+            patientByDoc = Arrays.copyOf(patientByDoc, doc * 2);
+        }
+        patientByDoc[doc] = summary.getId();
+        docByPatient.put(summary.getId(), doc);
+        for (long trigram : trigrams) {
+            postingsByTrigram.computeIfAbsent(trigram, t -> new Postings()).add(doc);
+        }
+    }
+
+    private void tombstone(Long patientId) {
+        Integer doc = docByPatient.remove(patientId);
+        if (doc == null) {
+            return;
+        }
+        deletedDocs.set(doc);
+        int deleted = deletedDocs.cardinality();
+        if (docCount >= COMPACTION_MIN_DOCS && deleted * 4 >= docCount) {
+            compact();
+        }
+    }
+
+    /**
+     * Drops tombstoned doc ids from every posting list and renumbers the live ones densely.
+     * Relative order is kept, so the posting lists stay sorted.
+     */
+    private void compact() {
+        int[] newDocs = new int[docCount];
+        long[] newPatientByDoc = new long[Math.max(1024, docCount - deletedDocs.cardinality())];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (deletedDocs.get(doc)) {
+                newDocs[doc] = -1;
+            } else {
+                newDocs[doc] = live;
+                newPatientByDoc[live] = patientByDoc[doc];
+                docByPatient.put(patientByDoc[doc], live);
+                live++;
+            }
+        }
+        postingsByTrigram.values().removeIf(postings -> postings.remap(newDocs) == 0);
+        log.debug("Compacted patient search index from {} to {} docs", docCount, live);
+        patientByDoc = newPatientByDoc;
+        docCount = live;
+        deletedDocs.clear();
+    }
+
+    // --- Text processing ---
+
+    private static List<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        normalized = DIGIT_SEPARATORS.matcher(normalized.toLowerCase(Locale.ROOT)).replaceAll("");
+        List<String> words = new ArrayList<>();
+        for (String word : NON_ALPHANUMERIC.split(normalized)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static List<Long> trigrams(String word) {
+        String padded = "" + WORD_START + WORD_START + word;
+        List<Long> trigrams = new ArrayList<>(word.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    private static boolean isAnchored(long trigram) {
+        return (trigram >>> 32) == WORD_START;
+    }
+
+    /**
+     * Growable, sorted list of doc ids.
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private int size = 0;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        // Rewrites the list through the old-to-new mapping, dropping removed docs; returns the new size
+        int remap(int[] newDocs) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = newDocs[docs[i]];
+                if (doc >= 0) {
+                    docs[kept++] = doc;
+                }
+            }
+            size = kept;
+            if (docs.length > 16 && size < docs.length / 4) {
+                docs = Arrays.copyOf(docs, Math.max(4, size * 2));
+            }
+            return size;
+        }
+    }
+}
@@ -1,21 +1,34 @@
 package com.clinicapp.backend.service.core;
 
+import com.clinicapp.backend.dto.core.KeysetPageDTO;
 import com.clinicapp.backend.dto.core.PatientDTO;
+import com.clinicapp.backend.dto.core.PatientSummaryDTO;
+import com.clinicapp.backend.event.PatientChangedEvent;
 import com.clinicapp.backend.model.core.Patient;
 import com.clinicapp.backend.repository.core.PatientRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class PatientService {
 
     private final PatientRepository patientRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PatientSearchIndex searchIndex;
 
     // --- Mapping Logic ---
 
@@ -67,8 +80,48 @@ public class PatientService {
 
     @Transactional(readOnly = true)
     public List<PatientDTO> getAllPatients() {
-        return patientRepository.findAll().stream()
-                .map(this::mapToDTO)
+        return patientRepository.findAllDetails();
+    }
+
+    /**
+     * Returns up to {@code size} patient summaries with an id greater than {@code cursor}.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<PatientSummaryDTO> getPatientSummaries(Long cursor, int size) {
+        List<PatientSummaryDTO> items = patientRepository.findSummariesAfter(cursor == null ? 0L : cursor, Limit.of(size));
+        Long nextCursor = items.size() < size ? null : items.get(items.size() - 1).getId();
+        return new KeysetPageDTO<>(items, nextCursor);
+    }
+
+    /**
+     * Feeds every patient summary to the consumer in id order without holding them all in memory.
+     */
+    @Transactional(readOnly = true)
+    public void streamPatientSummaries(Consumer<PatientSummaryDTO> consumer) {
+        try (Stream<PatientSummaryDTO> summaries = patientRepository.streamAllSummaries()) {
+            summaries.forEach(consumer);
+        }
+    }
+
+    /**
+     * Ranked search over patient names, phone numbers and emails, tolerant of typos and partial input.
+     */
+    @Transactional(readOnly = true)
+    public List<PatientSummaryDTO> searchPatients(String query, int limit) {
+        if (!searchIndex.isReady()) {
+            // Plain substring match while the index is still loading
+            String pattern = "%" + query.trim().toLowerCase(Locale.ROOT).replace("%", "\\%").replace("_", "\\_") + "%";
+            return patientRepository.searchSummaries(pattern, Limit.of(limit));
+        }
+        List<Long> rankedIds = searchIndex.search(query, limit);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PatientSummaryDTO> byId = patientRepository.findSummariesByIdIn(rankedIds).stream()
+                .collect(Collectors.toMap(PatientSummaryDTO::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull) // Deleted since the search
                 .collect(Collectors.toList());
     }
 
@@ -91,6 +144,7 @@ public class PatientService {
 
         Patient patient = mapToEntity(patientDTO);
         Patient savedPatient = patientRepository.save(patient);
+        eventPublisher.publishEvent(new PatientChangedEvent(savedPatient.getId(), PatientChangedEvent.ChangeType.CREATED));
         return mapToDTO(savedPatient);
     }
 
@@ -113,6 +167,7 @@ public class PatientService {
 
         updateEntityFromDTO(existingPatient, patientDTO);
         Patient updatedPatient = patientRepository.save(existingPatient); // Save updates
+        eventPublisher.publishEvent(new PatientChangedEvent(updatedPatient.getId(), PatientChangedEvent.ChangeType.UPDATED));
         return mapToDTO(updatedPatient);
     }
 
@@ -124,5 +179,6 @@ public class PatientService {
         // Optional: Add checks here if patient has related appointments/prescriptions/invoices
         // before allowing deletion, or handle cascading deletes appropriately.
         patientRepository.deleteById(id);
+        eventPublisher.publishEvent(new PatientChangedEvent(id, PatientChangedEvent.ChangeType.DELETED));
     }
 }
\ No newline at end of file
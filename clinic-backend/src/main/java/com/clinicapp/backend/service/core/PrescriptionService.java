@@ -1,6 +1,7 @@
 package com.clinicapp.backend.service.core;
 
 import com.clinicapp.backend.dto.core.PrescriptionDTO;
+import com.clinicapp.backend.event.PrescriptionChangedEvent;
 import com.clinicapp.backend.model.core.Patient;
 import com.clinicapp.backend.model.core.Prescription;
 import com.clinicapp.backend.model.security.Role;
@@ -10,6 +11,7 @@ import com.clinicapp.backend.repository.core.PrescriptionRepository;
 import com.clinicapp.backend.repository.security.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +25,7 @@ public class PrescriptionService {
     private final PrescriptionRepository prescriptionRepository;
     private final PatientRepository patientRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // --- Mapping Logic ---
 
@@ -104,6 +107,7 @@ public class PrescriptionService {
                 .build();
 
         Prescription savedPrescription = prescriptionRepository.save(prescription);
+        eventPublisher.publishEvent(new PrescriptionChangedEvent(savedPrescription.getId(), null, doctor.getId()));
         return mapToDTO(savedPrescription);
     }
 
@@ -119,6 +123,7 @@ public class PrescriptionService {
                 .orElseThrow(() -> new EntityNotFoundException("Doctor not found with id: " + prescriptionDTO.getDoctorId()));
 
         validateDoctor(doctor);
+        Long previousDoctorId = existingPrescription.getDoctor().getId();
 
         // Update fields
         existingPrescription.setPatient(patient);
@@ -132,14 +137,15 @@ public class PrescriptionService {
         // updatedAt handled by @PreUpdate
 
         Prescription updatedPrescription = prescriptionRepository.save(existingPrescription);
+        eventPublisher.publishEvent(new PrescriptionChangedEvent(updatedPrescription.getId(), previousDoctorId, doctor.getId()));
         return mapToDTO(updatedPrescription);
     }
 
     @Transactional
     public void deletePrescription(Long id) {
-        if (!prescriptionRepository.existsById(id)) {
-            throw new EntityNotFoundException("Prescription not found with id: " + id);
-        }
-        prescriptionRepository.deleteById(id);
+        Prescription prescription = prescriptionRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Prescription not found with id: " + id));
+        prescriptionRepository.delete(prescription);
+        eventPublisher.publishEvent(new PrescriptionChangedEvent(id, prescription.getDoctor().getId(), null));
     }
 }
\ No newline at end of file
@@ -0,0 +1,401 @@
+package com.clinicapp.backend.service.notification;
+
+import com.clinicapp.backend.dto.notification.NotificationDTO;
+import com.clinicapp.backend.model.notification.Notification;
+import com.clinicapp.backend.model.security.User;
+import com.clinicapp.backend.repository.notification.NotificationRepository;
+import com.clinicapp.backend.repository.security.UserRepository;
+import com.clinicapp.backend.service.chat.PresenceRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and pushes notifications off the request thread.
+ * <p>
+ * Notifications are queued once the caller's transaction commits, so a rolled back change never
+ * notifies anyone. A single writer thread drains the queue and stores each drained chunk in one
+ * transaction, which Hibernate sends as JDBC batch inserts; the WebSocket pushes then run on a
+ * separate pool so a slow client never holds up the writer. When the queue is full the caller
+ * writes and pushes synchronously instead, which slows it down rather than losing notifications.
+ * <p>
+ * Pushes to users without a WebSocket session are not sent; the last few are held per user and
+ * flushed as one message (a JSON array) when the user subscribes to their notification queue again.
+ * Held pushes are only a convenience, since the notifications are in the database: they are kept
+ * for a bounded number of users and dropped after {@code offline-ttl-minutes}, e.g. when the user
+ * reconnects to another node in relay mode.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MeterRegistry meterRegistry;
+    private final PresenceRegistry presenceRegistry;
+    private final UnreadNotificationCounters unreadCounters;
+    private final int batchSize;
+    private final int pushThreads;
+    private final int offlineQueueSize;
+    private final BlockingQueue<PendingNotification> queue;
+    private final Cache<String, Deque<NotificationDTO>> heldForOfflineUsers;
+
+    private ThreadPoolTaskExecutor pushExecutor;
+    private Thread writer;
+    private volatile boolean running;
+
+    private Timer dispatchLatency;
+    private Counter synchronousFallbacks;
+    private Counter failedWrites;
+    private Counter heldPushes;
+    private Counter droppedPushes;
+
+    public NotificationDispatcher(
+            NotificationRepository notificationRepository,
+            UserRepository userRepository,
+            TransactionTemplate transactionTemplate,
+            SimpMessagingTemplate messagingTemplate,
+            MeterRegistry meterRegistry,
+            PresenceRegistry presenceRegistry,
+            UnreadNotificationCounters unreadCounters,
+            @Value("${application.notifications.dispatch.queue-capacity:10000}") int queueCapacity,
+            @Value("${application.notifications.dispatch.batch-size:100}") int batchSize,
+            @Value("${application.notifications.dispatch.push-threads:4}") int pushThreads,
+            @Value("${application.notifications.dispatch.offline-queue-size:100}") int offlineQueueSize,
+            @Value("${application.notifications.dispatch.offline-max-users:10000}") long offlineMaxUsers,
+            @Value("${application.notifications.dispatch.offline-ttl-minutes:60}") long offlineTtlMinutes) {
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.meterRegistry = meterRegistry;
+        this.presenceRegistry = presenceRegistry;
+        this.unreadCounters = unreadCounters;
+        this.batchSize = batchSize;
+        this.pushThreads = pushThreads;
+        this.offlineQueueSize = offlineQueueSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.heldForOfflineUsers = Caffeine.newBuilder()
+                .maximumSize(offlineMaxUsers)
+                .expireAfterWrite(Duration.ofMinutes(offlineTtlMinutes))
+                .<String, Deque<NotificationDTO>>removalListener((username, held, cause) -> {
+                    if (cause.wasEvicted() && held != null) {
+                        droppedPushes.increment(held.size());
+                    }
+                })
+                .build();
+    }
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("notifications.dispatch.queue.depth", queue, BlockingQueue::size)
+                .description("Notifications waiting to be written and pushed")
+                .register(meterRegistry);
+        dispatchLatency = Timer.builder("notifications.dispatch.latency")
+                .description("Time from a notification being raised to its WebSocket push")
+                .register(meterRegistry);
+        synchronousFallbacks = Counter.builder("notifications.dispatch.synchronous")
+                .description("Notifications dispatched on the caller thread because the queue was full")
+                .register(meterRegistry);
+        failedWrites = Counter.builder("notifications.dispatch.failed")
+                .description("Notifications that could not be stored")
+                .register(meterRegistry);
+        heldPushes = Counter.builder("notifications.dispatch.held")
+                .description("Pushes held because the recipient had no WebSocket session")
+                .register(meterRegistry);
+        droppedPushes = Counter.builder("notifications.dispatch.held.dropped")
+                .description("Held pushes discarded because the recipient's offline queue was full or expired")
+                .register(meterRegistry);
+        Gauge.builder("notifications.dispatch.held.users", heldForOfflineUsers, Cache::estimatedSize)
+                .description("Offline users with held pushes")
+                .register(meterRegistry);
+
+        pushExecutor = new ThreadPoolTaskExecutor();
+        pushExecutor.setThreadNamePrefix("notification-push-");
+        pushExecutor.setCorePoolSize(pushThreads);
+        pushExecutor.setMaxPoolSize(pushThreads);
+        pushExecutor.setQueueCapacity(queue.remainingCapacity());
+        // A saturated push pool slows the writer down instead of dropping pushes
+        pushExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        pushExecutor.initialize();
+
+        running = true;
+        writer = new Thread(this::drainLoop, "notification-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        // Store whatever is left so nothing queued before shutdown is lost
+        List<PendingNotification> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            writeAndPush(remaining);
+        }
+        pushExecutor.shutdown();
+    }
+
+    /**
+     * Queues a notification for writing and delivery. Inside a transaction nothing happens until
+     * the transaction commits; outside of one the notification is queued immediately.
+     */
+    public void dispatch(PendingNotification notification) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(notification);
+                }
+            });
+        } else {
+            enqueue(notification);
+        }
+    }
+
+    /**
+     * Pushes notifications that the caller has already stored, once its transaction commits.
+     *
+     * @param ids the stored ids, in the same order as {@code notifications}
+     */
+    public void pushAfterCommit(List<PendingNotification> notifications, List<Long> ids) {
+        Runnable pushAll = () -> {
+            for (int i = 0; i < notifications.size(); i++) {
+                PendingNotification notification = notifications.get(i);
+                Long id = ids.get(i);
+                pushExecutor.execute(() -> push(notification, id));
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pushAll.run();
+                }
+            });
+        } else {
+            pushAll.run();
+        }
+    }
+
+    private void enqueue(PendingNotification notification) {
+        if (!queue.offer(notification)) {
+            synchronousFallbacks.increment();
+            log.warn("Notification queue is full; dispatching on the caller thread");
+            writeAndPush(List.of(notification));
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingNotification> chunk = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingNotification first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                chunk.add(first);
+                queue.drainTo(chunk, batchSize - 1);
+                writeAndPush(chunk);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Unexpected error in notification writer", e);
+            } finally {
+                chunk.clear();
+            }
+        }
+    }
+
+    private void writeAndPush(List<PendingNotification> chunk) {
+        List<Long> ids = write(chunk);
+        for (int i = 0; i < chunk.size(); i++) {
+            Long id = ids.get(i);
+            if (id != null) {
+                PendingNotification notification = chunk.get(i);
+                pushExecutor.execute(() -> push(notification, id));
+            }
+        }
+    }
+
+    /**
+     * Inserts the chunk in one transaction and returns the generated ids in order. If the batch
+     * fails the rows are retried one by one so a single bad row cannot drop the rest.
+     */
+    private List<Long> write(List<PendingNotification> chunk) {
+        try {
+            return insert(chunk);
+        } catch (Exception e) {
+            log.warn("Batch insert of {} notifications failed, retrying individually", chunk.size(), e);
+        }
+        List<Long> ids = new ArrayList<>(chunk.size());
+        for (PendingNotification notification : chunk) {
+            try {
+                ids.add(insert(List.of(notification)).get(0));
+            } catch (Exception e) {
+                failedWrites.increment();
+                log.error("Could not store notification '{}' for user {}", notification.getTitle(), notification.getRecipientId(), e);
+                ids.add(null);
+            }
+        }
+        return ids;
+    }
+
+    private List<Long> insert(List<PendingNotification> rows) {
+        return transactionTemplate.execute(status -> {
+            List<Notification> notifications = new ArrayList<>(rows.size());
+            for (PendingNotification row : rows) {
+                // A reference is enough for the foreign key; no need to load the user
+                notifications.add(row.toEntity(userRepository.getReferenceById(row.getRecipientId())));
+            }
+            return notificationRepository.saveAll(notifications).stream()
+                    .map(Notification::getId)
+                    .toList();
+        });
+    }
+
+    private void push(PendingNotification notification, Long id) {
+        String destination = "/queue/notifications";
+        String username = notification.getRecipientUsername();
+        NotificationDTO notificationDTO = notification.toDTO(id);
+        if (!presenceRegistry.isOnline(username)) {
+            hold(username, notificationDTO);
+        } else {
+            log.debug("Sending notification DTO via WebSocket to user '{}' on destination '{}'. Payload: {}", username, destination, notificationDTO);
+            try {
+                // Send to user's private queue
+                messagingTemplate.convertAndSendToUser(username, destination, notificationDTO);
+            } catch (Exception e) {
+                log.error("Error sending notification DTO via WebSocket to user '{}'", username, e);
+            } finally {
+                dispatchLatency.record(System.nanoTime() - notification.getCreatedNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        // The row is committed by now, so the count can follow
+        unreadCounters.changed(notification.getRecipientId(), username);
+    }
+
+    /**
+     * Sends everything held for a user as a single message. Called when the user subscribes to
+     * their notification queue.
+     */
+    public void flushHeld(String username) {
+        Deque<NotificationDTO> held = heldForOfflineUsers.asMap().remove(username);
+        if (held == null || held.isEmpty()) {
+            return;
+        }
+        List<NotificationDTO> batch = new ArrayList<>(held);
+        pushExecutor.execute(() -> {
+            log.debug("Sending {} held notifications via WebSocket to user '{}'", batch.size(), username);
+            try {
+                messagingTemplate.convertAndSendToUser(username, "/queue/notifications", batch);
+            } catch (Exception e) {
+                log.error("Error sending held notifications via WebSocket to user '{}'", username, e);
+            }
+        });
+    }
+
+    // Keeps the newest offlineQueueSize pushes; the rest are still in the database
+    private void hold(String username, NotificationDTO notificationDTO) {
+        heldPushes.increment();
+        heldForOfflineUsers.asMap().compute(username, (user, held) -> {
+            if (held == null) {
+                held = new ArrayDeque<>();
+            }
+            if (held.size() >= offlineQueueSize) {
+                held.pollFirst();
+                droppedPushes.increment();
+            }
+            held.addLast(notificationDTO);
+            return held;
+        });
+        // The user may have come back while this was being held, after their flush already ran
+        if (presenceRegistry.isOnline(username)) {
+            flushHeld(username);
+        }
+    }
+
+    /**
+     * A notification captured on the caller's thread, carrying only plain values so it can be
+     * written and pushed after the persistence context is gone.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class PendingNotification {
+        private final Long recipientId;
+        private final String recipientUsername; // STOMP principal name, used to route the push
+        private final String recipientEmail;
+        private final Notification.NotificationType type;
+        private final String title;
+        private final String message;
+        private final String referenceType;
+        private final Long referenceId;
+        private final Instant createdAt;
+        private final long createdNanos;
+
+        public static PendingNotification of(User recipient, Notification.NotificationType type, String title,
+                                             String message, String referenceType, Long referenceId) {
+            return new PendingNotification(recipient.getId(), recipient.getUsername(), recipient.getEmail(), type, title, message,
+                    referenceType, referenceId, Instant.now(), System.nanoTime());
+        }
+
+        Notification toEntity(User recipient) {
+            return Notification.builder()
+                    .recipient(recipient)
+                    .type(type)
+                    .title(title)
+                    .message(message)
+                    .referenceType(referenceType)
+                    .referenceId(referenceId)
+                    .createdAt(createdAt)
+                    .build();
+        }
+
+        NotificationDTO toDTO(Long id) {
+            return NotificationDTO.builder()
+                    .id(id)
+                    .type(type)
+                    .title(title)
+                    .message(message)
+                    .createdAt(createdAt)
+                    .read(false)
+                    .referenceType(referenceType)
+                    .referenceId(referenceId)
+                    .recipient(recipientEmail) // Add recipient email for WebSocket routing
+                    .sender("system") // Set a default sender
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.clinicapp.backend.service.notification;
+
+import com.clinicapp.backend.dto.notification.NotificationKeyDTO;
+import com.clinicapp.backend.repository.notification.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Removes read notifications older than {@code read-days}.
+ * <p>
+ * The expired rows are walked in {@code (created_at, id)} order along
+ * {@code idx_notifications_read_created_at}, one keyset batch at a time. Each batch is removed in its
+ * own short transaction with a pause in between, so the purge never holds locks for long and
+ * stops after {@code max-run-minutes}, leaving the rest for the next run.
+ * <p>
+ * In {@code archive} mode the rows are moved instead of deleted, into monthly partitions of
+ * {@code notifications_archive}. Expiring archived data then only means dropping a partition.
+ * <p>
+ * Metrics: {@code notifications.retention.removed} counter, {@code notifications.retention.batch}
+ * timer, and the {@code notifications.retention.run.removed} and {@code notifications.retention.running}
+ * gauges for the current (or last) run.
+ */
+@Component
+@Slf4j
+public class NotificationRetentionService {
+
+    private static final String ARCHIVE_TABLE = "notifications_archive";
+    private static final Pattern ARCHIVE_PARTITION = Pattern.compile(ARCHIVE_TABLE + "_(\\d{4})_(\\d{2})");
+    private static final String COLUMNS = "id, user_id, type, title, message, created_at, read_at, read, reference_id, reference_type";
+
+    private final NotificationRepository notificationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int readDays;
+    private final int batchSize;
+    private final long pauseMs;
+    private final long maxRunMinutes;
+    private final boolean archive;
+    private final int archiveRetentionMonths;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong removedThisRun = new AtomicLong();
+    private final Set<String> knownPartitions = ConcurrentHashMap.newKeySet();
+
+    private Counter removed;
+    private Counter droppedPartitions;
+    private Timer batchTimer;
+
+    public NotificationRetentionService(
+            NotificationRepository notificationRepository,
+            TransactionTemplate transactionTemplate,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${application.notifications.retention.read-days:30}") int readDays,
+            @Value("${application.notifications.retention.batch-size:1000}") int batchSize,
+            @Value("${application.notifications.retention.pause-ms:50}") long pauseMs,
+            @Value("${application.notifications.retention.max-run-minutes:60}") long maxRunMinutes,
+            // "delete" removes expired rows; "archive" moves them into notifications_archive
+            @Value("${application.notifications.retention.mode:delete}") String mode,
+            @Value("${application.notifications.retention.archive.retention-months:12}") int archiveRetentionMonths) {
+        this.notificationRepository = notificationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.readDays = readDays;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+        this.maxRunMinutes = maxRunMinutes;
+        this.archive = "archive".equalsIgnoreCase(mode);
+        this.archiveRetentionMonths = archiveRetentionMonths;
+    }
+
+    @PostConstruct
+    void init() {
+        removed = Counter.builder("notifications.retention.removed")
+                .description("Expired notifications deleted or archived")
+                .register(meterRegistry);
+        droppedPartitions = Counter.builder("notifications.retention.archive.dropped")
+                .description("Expired notification archive partitions dropped")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("notifications.retention.batch")
+                .description("Time to remove one batch of expired notifications")
+                .register(meterRegistry);
+        Gauge.builder("notifications.retention.run.removed", removedThisRun, AtomicLong::get)
+                .description("Notifications removed by the current or last retention run")
+                .register(meterRegistry);
+        Gauge.builder("notifications.retention.running", running, r -> r.get() ? 1 : 0)
+                .description("1 while a retention run is in progress")
+                .register(meterRegistry);
+
+        if (archive) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + ARCHIVE_TABLE + " ("
+                    + "id bigint NOT NULL, "
+                    + "user_id bigint NOT NULL, "
+                    + "type varchar(255) NOT NULL, "
+                    + "title varchar(255) NOT NULL, "
+                    + "message varchar(255) NOT NULL, "
+                    + "created_at timestamp(6) with time zone NOT NULL, "
+                    + "read_at timestamp(6) with time zone, "
+                    + "read boolean NOT NULL, "
+                    + "reference_id bigint, "
+                    + "reference_type varchar(255) NOT NULL"
+                    + ") PARTITION BY RANGE (created_at)");
+        }
+    }
+
+    @Scheduled(cron = "${application.notifications.retention.cron:0 0 0 * * ?}")
+    public void scheduledPurge() {
+        purge();
+    }
+
+    /**
+     * Runs one purge pass unless one is already in progress.
+     *
+     * @return the number of notifications deleted or archived
+     */
+    public long purge() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Notification retention is already running; skipping");
+            return 0;
+        }
+        try {
+            Instant cutoff = Instant.now().minus(readDays, ChronoUnit.DAYS);
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(maxRunMinutes);
+            removedThisRun.set(0);
+            Instant afterCreatedAt = Instant.EPOCH;
+            Long afterId = 0L;
+            int batches = 0;
+            while (true) {
+                List<NotificationKeyDTO> batch = notificationRepository.findReadCreatedBeforeAfter(
+                        cutoff, afterCreatedAt, afterId, Limit.of(batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                int count = batchTimer.record(() -> archive ? archiveBatch(batch) : deleteBatch(batch));
+                removed.increment(count);
+                removedThisRun.addAndGet(count);
+                batches++;
+                if (batches % 100 == 0) {
+                    log.info("Notification retention: {} removed so far", removedThisRun.get());
+                }
+
+                NotificationKeyDTO last = batch.get(batch.size() - 1);
+                afterCreatedAt = last.getCreatedAt();
+                afterId = last.getId();
+                if (batch.size() < batchSize) {
+                    break;
+                }
+                if (System.nanoTime() > deadline) {
+                    log.warn("Notification retention stopped after {} minutes; the rest is left for the next run", maxRunMinutes);
+                    break;
+                }
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs); // Let other transactions through between batches
+                }
+            }
+            if (archive) {
+                dropExpiredArchivePartitions();
+            }
+            log.info("Notification retention removed {} read notifications created before {}", removedThisRun.get(), cutoff);
+            return removedThisRun.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return removedThisRun.get();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int deleteBatch(List<NotificationKeyDTO> batch) {
+        List<Long> ids = batch.stream().map(NotificationKeyDTO::getId).toList();
+        return transactionTemplate.execute(status -> notificationRepository.deleteByIdIn(ids));
+    }
+
+    // Moves the rows with one statement, so each batch is atomic without an explicit transaction
+    private int archiveBatch(List<NotificationKeyDTO> batch) {
+        batch.stream()
+                .map(key -> YearMonth.from(key.getCreatedAt().atZone(ZoneOffset.UTC)))
+                .distinct()
+                .forEach(this::ensureArchivePartition);
+        Long[] ids = batch.stream().map(NotificationKeyDTO::getId).toArray(Long[]::new);
+        return jdbcTemplate.update(
+                "WITH moved AS (DELETE FROM notifications WHERE id = ANY (?) RETURNING " + COLUMNS + ") "
+                        + "INSERT INTO " + ARCHIVE_TABLE + " (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved",
+                ps -> {
+                    Array array = ps.getConnection().createArrayOf("bigint", ids);
+                    ps.setArray(1, array);
+                });
+    }
+
+    private void ensureArchivePartition(YearMonth month) {
+        String partition = String.format("%s_%04d_%02d", ARCHIVE_TABLE, month.getYear(), month.getMonthValue());
+        if (knownPartitions.add(partition)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + ARCHIVE_TABLE
+                    + " FOR VALUES FROM ('" + month.atDay(1) + " 00:00:00+00') TO ('" + month.plusMonths(1).atDay(1) + " 00:00:00+00')");
+        }
+    }
+
+    private void dropExpiredArchivePartitions() {
+        YearMonth oldestKept = YearMonth.now(ZoneOffset.UTC).minusMonths(archiveRetentionMonths);
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "JOIN pg_class p ON p.oid = i.inhparent "
+                        + "WHERE p.relname = ?",
+                String.class, ARCHIVE_TABLE);
+        for (String partition : partitions) {
+            Matcher matcher = ARCHIVE_PARTITION.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.isBefore(oldestKept)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                knownPartitions.remove(partition);
+                droppedPartitions.increment();
+                log.info("Dropped notification archive partition {}", partition);
+            }
+        }
+    }
+}
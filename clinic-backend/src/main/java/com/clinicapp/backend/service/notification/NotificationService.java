@@ -1,20 +1,21 @@
 package com.clinicapp.backend.service.notification;
 
-import com.clinicapp.backend.dto.notification.NotificationDTO;
+import com.clinicapp.backend.dto.notification.NotificationTemplate;
 import com.clinicapp.backend.model.notification.Notification;
 import com.clinicapp.backend.model.security.User;
 import com.clinicapp.backend.repository.notification.NotificationRepository;
+import com.clinicapp.backend.repository.security.UserRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j; // Import Slf4j for logging
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -22,14 +23,20 @@ import java.util.List;
 @RequiredArgsConstructor
 public class NotificationService {
 
+    // A multiple of hibernate.jdbc.batch_size, so each flush is sent as whole batches
+    private static final int BULK_CHUNK_SIZE = 500;
+
     private final NotificationRepository notificationRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationDispatcher notificationDispatcher;
+    private final UnreadNotificationCounters unreadCounters;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
 
     /**
-     * Create and send a new notification
+     * Create and send a new notification.
+     * The row is written and pushed asynchronously once the caller's transaction commits.
      */
-    @Transactional
-    public Notification createNotification(
+    public void createNotification(
             User recipient,
             Notification.NotificationType type,
             String title,
@@ -37,46 +44,58 @@ public class NotificationService {
             String referenceType,
             Long referenceId
     ) {
-        // Create the notification
-        Notification notification = Notification.builder()
-                .recipient(recipient)
-                .type(type)
-                .title(title)
-                .message(message)
-                .referenceType(referenceType)
-                .referenceId(referenceId)
-                .build();
-
-        // Save to database
-        notification = notificationRepository.save(notification);
-
-        // Send real-time notification via WebSocket
-        sendRealTimeNotification(notification);
+        // Capture plain values now; the recipient may be a lazy proxy that is unusable after commit
+        notificationDispatcher.dispatch(NotificationDispatcher.PendingNotification.of(
+                recipient, type, title, message, referenceType, referenceId));
+    }
 
-        return notification;
+    /**
+     * Create the same notification for many recipients in one call.
+     * Rows are written in the caller's transaction as JDBC batches of {@code hibernate.jdbc.batch_size};
+     * each recipient gets one WebSocket message once the transaction commits.
+     *
+     * @return the number of notifications created
+     */
+    @Transactional
+    public int createNotifications(Collection<User> recipients, NotificationTemplate template) {
+        List<NotificationDispatcher.PendingNotification> pending = new ArrayList<>(recipients.size());
+        List<Long> ids = new ArrayList<>(recipients.size());
+        List<Notification> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+        for (User recipient : recipients) {
+            NotificationDispatcher.PendingNotification notification = NotificationDispatcher.PendingNotification.of(
+                    recipient, template.getType(), template.getTitle(), template.getMessage(),
+                    template.getReferenceType(), template.getReferenceId());
+            pending.add(notification);
+            chunk.add(notification.toEntity(recipient));
+            if (chunk.size() == BULK_CHUNK_SIZE) {
+                saveChunk(chunk, ids);
+            }
+        }
+        saveChunk(chunk, ids);
+        notificationDispatcher.pushAfterCommit(pending, ids);
+        return pending.size();
     }
 
     /**
-     * Send notification via WebSocket
+     * Send an announcement to every user.
      */
-    private void sendRealTimeNotification(Notification notification) {
-        // Convert to DTO to avoid circular references and lazy loading issues
-        NotificationDTO notificationDTO = convertToDTO(notification);
+    @Transactional
+    public int announceToAllUsers(NotificationTemplate template) {
+        return createNotifications(userRepository.findAll(), template);
+    }
 
-        String destination = "/queue/notifications";
-        String userEmail = notification.getRecipient().getEmail();
-        log.info("Attempting to send notification DTO via WebSocket to user '{}' on destination '{}'. Payload: {}", userEmail, destination, notificationDTO);
-        try {
-            // Send to user's private queue
-            messagingTemplate.convertAndSendToUser(
-                    userEmail,
-                    destination,
-                    notificationDTO
-            );
-            log.info("Successfully sent notification DTO to user '{}'", userEmail);
-        } catch (Exception e) {
-            log.error("Error sending notification DTO via WebSocket to user '{}'", userEmail, e);
+    // Flushes a chunk as one batch and detaches it so the persistence context stays small
+    private void saveChunk(List<Notification> chunk, List<Long> ids) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        notificationRepository.saveAll(chunk);
+        notificationRepository.flush();
+        for (Notification notification : chunk) {
+            ids.add(notification.getId());
+            entityManager.detach(notification);
         }
+        chunk.clear();
     }
 
     /**
@@ -96,11 +115,10 @@ public class NotificationService {
     }
 
     /**
-     * Count unread notifications for a user
+     * Count unread notifications for a user (served from memory after the first call)
      */
-    @Transactional(readOnly = true)
     public long countUnreadNotifications(User user) {
-        return notificationRepository.countByRecipientAndReadFalse(user);
+        return unreadCounters.get(user.getId());
     }
 
     /**
@@ -111,8 +129,12 @@ public class NotificationService {
         notificationRepository.findById(notificationId)
                 .filter(notification -> notification.getRecipient().equals(user))
                 .ifPresent(notification -> {
+                    boolean wasUnread = !notification.isRead();
                     notification.markAsRead();
                     notificationRepository.save(notification);
+                    if (wasUnread) {
+                        unreadCounters.changedAfterCommit(user.getId(), user.getUsername());
+                    }
                 });
     }
 
@@ -121,35 +143,9 @@ public class NotificationService {
      */
     @Transactional
     public void markAllAsRead(User user) {
-        notificationRepository.markAllAsRead(user, Instant.now());
-    }
-
-    /**
-     * Delete old read notifications (older than 30 days)
-     * Runs daily at midnight
-     */
-    @Scheduled(cron = "0 0 0 * * ?")
-    @Transactional
-    public void deleteOldReadNotifications() {
-        Instant thirtyDaysAgo = Instant.now().minus(30, ChronoUnit.DAYS);
-        notificationRepository.deleteOldReadNotifications(thirtyDaysAgo);
-    }
-
-    /**
-     * Convert Notification entity to DTO
-     */
-    private NotificationDTO convertToDTO(Notification notification) {
-        return NotificationDTO.builder()
-                .id(notification.getId())
-                .type(notification.getType())
-                .title(notification.getTitle())
-                .message(notification.getMessage())
-                .createdAt(notification.getCreatedAt())
-                .read(notification.isRead())
-                .referenceType(notification.getReferenceType())
-                .referenceId(notification.getReferenceId())
-                .recipient(notification.getRecipient().getEmail()) // Add recipient email for WebSocket routing
-                .sender("system") // Set a default sender
-                .build();
+        int marked = notificationRepository.markAllAsRead(user, Instant.now());
+        if (marked > 0) {
+            unreadCounters.changedAfterCommit(user.getId(), user.getUsername());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+package com.clinicapp.backend.service.notification;
+
+import com.clinicapp.backend.dto.notification.UnreadCountDTO;
+import com.clinicapp.backend.repository.notification.NotificationRepository;
+import com.clinicapp.backend.service.chat.PresenceRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Per-user unread notification counts, kept in memory and pushed to the user when they change.
+ * <p>
+ * A count is loaded from the database on first read. Once a change to a user's notifications has
+ * committed, their count is invalidated rather than adjusted, and the pushed value is a fresh load,
+ * so a load racing the change can't be counted twice. In relay (multi-node) broker mode a change
+ * committed on another node would never reach this node's cache, so counts are not cached there
+ * and every read goes to the database.
+ */
+@Component
+@Slf4j
+public class UnreadNotificationCounters {
+
+    private final NotificationRepository notificationRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PresenceRegistry presenceRegistry;
+    private final Cache<Long, Long> counts; // null in relay mode
+
+    public UnreadNotificationCounters(
+            NotificationRepository notificationRepository,
+            SimpMessagingTemplate messagingTemplate,
+            PresenceRegistry presenceRegistry,
+            @Value("${application.websocket.broker.mode:simple}") String brokerMode,
+            @Value("${application.notifications.unread-count.max-size:10000}") long maxSize,
+            @Value("${application.notifications.unread-count.ttl-seconds:600}") long ttlSeconds) {
+        this.notificationRepository = notificationRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.presenceRegistry = presenceRegistry;
+        this.counts = "relay".equalsIgnoreCase(brokerMode) ? null : Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public long get(Long userId) {
+        if (counts == null) {
+            return notificationRepository.countByRecipientIdAndReadFalse(userId);
+        }
+        return counts.get(userId, notificationRepository::countByRecipientIdAndReadFalse);
+    }
+
+    /**
+     * Drops the user's cached count and pushes the reloaded value if they are online. The change
+     * must already be committed, since the count is reloaded from the database.
+     */
+    public void changed(Long userId, String username) {
+        if (counts != null) {
+            counts.invalidate(userId);
+        }
+        if (!presenceRegistry.isOnline(username)) {
+            return;
+        }
+        try {
+            messagingTemplate.convertAndSendToUser(username, "/queue/notifications", new UnreadCountDTO(get(userId)));
+        } catch (Exception e) {
+            log.error("Error sending unread count via WebSocket to user '{}'", username, e);
+        }
+    }
+
+    /**
+     * Same as {@link #changed}, but waits for the caller's transaction to commit.
+     */
+    public void changedAfterCommit(Long userId, String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changed(userId, username);
+                }
+            });
+        } else {
+            changed(userId, username);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.clinicapp.backend.service.security;
+
+import com.clinicapp.backend.model.security.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Bounded, TTL-evicted cache of principals resolved from already validated JWTs.
+ * <p>
+ * Entries are keyed by the token's signature segment and remember the full token, so a hit costs
+ * one hash lookup and one string comparison instead of a token parse plus a user query.
+ * Entries never outlive the token's own expiry and are evicted when the user is changed.
+ */
+@Component
+public class AuthenticatedPrincipalCache {
+
+    private final boolean enabled;
+    private final Cache<String, CachedPrincipal> cache;
+
+    public AuthenticatedPrincipalCache(
+            @Value("${application.security.jwt.principal-cache.enabled:true}") boolean enabled,
+            @Value("${application.security.jwt.principal-cache.max-size:10000}") long maxSize,
+            @Value("${application.security.jwt.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Returns the principal cached for this exact token, or null on a miss or if the token has expired since.
+     */
+    public UserDetails get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        String key = signatureOf(token);
+        CachedPrincipal cached = cache.getIfPresent(key);
+        if (cached == null || !cached.token().equals(token)) {
+            return null;
+        }
+        if (cached.expiration().before(new Date())) {
+            cache.invalidate(key);
+            return null;
+        }
+        return cached.userDetails();
+    }
+
+    /**
+     * Caches the principal resolved for a token that has just been validated.
+     */
+    public void put(String token, UserDetails userDetails, Date expiration) {
+        if (enabled) {
+            cache.put(signatureOf(token), new CachedPrincipal(token, userDetails, expiration));
+        }
+    }
+
+    /**
+     * Drops every cached principal of the given user, e.g. after their role changed or they were deleted.
+     */
+    public void evictUser(Long userId) {
+        cache.asMap().values().removeIf(cached ->
+                cached.userDetails() instanceof User user && userId.equals(user.getId()));
+    }
+
+    /**
+     * Evicts the user's principals once the current transaction commits, or right away without one.
+     * Evicting before commit would let a concurrent request re-cache the user as still stored.
+     */
+    public void evictUserAfterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictUser(userId);
+                }
+            });
+        } else {
+            evictUser(userId);
+        }
+    }
+
+    private static String signatureOf(String token) {
+        return token.substring(token.lastIndexOf('.') + 1);
+    }
+
+    private record CachedPrincipal(String token, UserDetails userDetails, Date expiration) {
+    }
+}
@@ -2,11 +2,13 @@ package com.clinicapp.backend.service.security;
 
 import com.clinicapp.backend.model.security.User; // Import User model
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value; // For potential future config loading
 import org.springframework.security.core.userdetails.UserDetails;
+import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
@@ -30,6 +32,37 @@ public class JwtService {
     @Value("${application.security.jwt.refresh-token.expiration}")
     private long refreshExpiration; // e.g., 604800000 for 7 days
 
+    // Built once from the secret; both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKeyString));
+        parser = Jwts.parser()
+                .verifyWith(signingKey) // Verify using the signing key
+                .build();
+    }
+
+    /**
+     * Parses the token and verifies its signature and expiry in a single pass.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public ValidatedToken validate(String token) {
+        Claims claims = extractAllClaims(token);
+        return new ValidatedToken(token, claims.getSubject(), claims.getExpiration(), claims);
+    }
+
+    /**
+     * Checks that an already validated token belongs to the given user and is still unexpired.
+     */
+    public boolean isTokenValid(ValidatedToken token, UserDetails userDetails) {
+        // Compare the token subject with the email from UserDetails (after casting)
+        String userDetailsEmail = (userDetails instanceof User) ? ((User) userDetails).getEmail() : userDetails.getUsername();
+        return token.getSubject() != null && token.getSubject().equals(userDetailsEmail) && !token.isExpired();
+    }
+
     /**
      * Extracts the username (subject) from the JWT token.
      */
@@ -75,7 +108,7 @@ public class JwtService {
                 .subject(email) // Use email as subject
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), Jwts.SIG.HS256) // Use the signing key
+                .signWith(signingKey, Jwts.SIG.HS256) // Use the signing key
                 .compact();
     }
 
@@ -84,42 +117,15 @@ public class JwtService {
      * Checks if the username matches and the token is not expired.
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String email = extractUsername(token); // This now extracts the email (subject)
-        // Compare extracted email with the email from UserDetails (after casting)
-        String userDetailsEmail = (userDetails instanceof User) ? ((User) userDetails).getEmail() : userDetails.getUsername();
-        return (email.equals(userDetailsEmail)) && !isTokenExpired(token);
-    }
-
-    /**
-     * Checks if the JWT token has expired.
-     */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    /**
-     * Extracts the expiration date from the JWT token.
-     */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return isTokenValid(validate(token), userDetails);
     }
 
     /**
      * Extracts all claims from the JWT token.
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey()) // Verify using the signing key
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
-
-    /**
-     * Generates the signing key from the base64 encoded secret string.
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKeyString);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
\ No newline at end of file
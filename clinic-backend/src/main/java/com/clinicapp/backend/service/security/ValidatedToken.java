@@ -0,0 +1,25 @@
+package com.clinicapp.backend.service.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * A JWT whose signature and expiry have been verified by {@link JwtService#validate(String)}.
+ * Holds the values callers need so the token never has to be parsed again.
+ */
+@Getter
+@AllArgsConstructor
+public final class ValidatedToken {
+
+    private final String token;
+    private final String subject; // The user's email
+    private final Date expiration;
+    private final Claims claims; // Immutable as returned by the parser
+
+    public boolean isExpired() {
+        return expiration.before(new Date());
+    }
+}
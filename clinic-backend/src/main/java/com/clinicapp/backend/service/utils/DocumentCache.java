@@ -0,0 +1,239 @@
+package com.clinicapp.backend.service.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cache of rendered PDFs, keyed by document type, entity id and the latest modification time of
+ * every row the document prints (the invoice or prescription, its patient, and the doctor or
+ * appointment), so editing any of them simply misses and old versions age out.
+ * <p>
+ * The memory tier is bounded by total bytes. When a disk directory is configured, documents evicted
+ * from memory spill to files there (bounded by their own byte budget, least recently used first) and
+ * are read back whole on a hit, since the memory tier they return to holds byte arrays.
+ */
+@Component
+@Slf4j
+public class DocumentCache {
+
+    public enum DocumentType { INVOICE, PRESCRIPTION }
+
+    /**
+     * Identifies one version of a document; its ETag changes whenever anything it prints is modified.
+     */
+    public record DocumentKey(DocumentType type, Long id, LocalDateTime version) {
+        public String etag() {
+            long versionMillis = version != null ? version.toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
+            return "\"" + type.name().toLowerCase() + "-" + id + "-" + versionMillis + "\"";
+        }
+    }
+
+    public record RenderedDocument(String filename, byte[] content) {
+    }
+
+    @FunctionalInterface
+    public interface Renderer {
+        RenderedDocument render() throws IOException;
+    }
+
+    private final Cache<DocumentKey, RenderedDocument> memory;
+    private final DiskTier disk; // null when spilling to disk is disabled
+    private final MeterRegistry meterRegistry;
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+
+    public DocumentCache(
+            MeterRegistry meterRegistry,
+            @Value("${application.documents.cache.memory-max-bytes:67108864}") long memoryMaxBytes,
+            @Value("${application.documents.cache.disk.directory:}") String diskDirectory,
+            @Value("${application.documents.cache.disk.max-bytes:1073741824}") long diskMaxBytes) throws IOException {
+        this.meterRegistry = meterRegistry;
+        this.disk = diskDirectory.isBlank() ? null : new DiskTier(Path.of(diskDirectory), diskMaxBytes);
+        this.memory = Caffeine.newBuilder()
+                .maximumWeight(memoryMaxBytes)
+                .weigher((DocumentKey key, RenderedDocument document) -> document.content().length)
+                .evictionListener((DocumentKey key, RenderedDocument document, RemovalCause cause) -> {
+                    if (disk != null && key != null && document != null && cause == RemovalCause.SIZE) {
+                        disk.put(key, document);
+                    }
+                })
+                .build();
+
+        memoryHits = requests("memory");
+        diskHits = requests("disk");
+        misses = requests("miss");
+        Gauge.builder("documents.cache.size", memory, cache -> cache.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                .description("Bytes of rendered PDFs held in memory")
+                .baseUnit("bytes")
+                .tag("tier", "memory")
+                .register(meterRegistry);
+        if (disk != null) {
+            Gauge.builder("documents.cache.size", disk, DiskTier::totalBytes)
+                    .description("Bytes of rendered PDFs spilled to disk")
+                    .baseUnit("bytes")
+                    .tag("tier", "disk")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Returns the cached document for this key, rendering and caching it on a miss. Concurrent
+     * requests for the same missing document render it once.
+     */
+    public RenderedDocument get(DocumentKey key, Renderer renderer) throws IOException {
+        RenderedDocument document = memory.getIfPresent(key);
+        if (document != null) {
+            memoryHits.increment();
+            return document;
+        }
+        try {
+            return memory.get(key, k -> load(k, renderer));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private RenderedDocument load(DocumentKey key, Renderer renderer) {
+        if (disk != null) {
+            RenderedDocument document = disk.get(key);
+            if (document != null) {
+                diskHits.increment();
+                return document;
+            }
+        }
+        misses.increment();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return renderer.render();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            sample.stop(Timer.builder("documents.render")
+                    .description("Time to render a PDF that was not cached")
+                    .tag("type", key.type().name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    private Counter requests(String result) {
+        return Counter.builder("documents.cache.requests")
+                .description("PDF requests by where the document was found")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Byte-bounded LRU of documents stored one per file. Files are written once and read back in a
+     * single call; the directory is cleared on startup since entries don't survive a restart.
+     */
+    private static final class DiskTier {
+
+        private final Path directory;
+        private final long maxBytes;
+        private final LinkedHashMap<DocumentKey, DiskEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long totalBytes;
+
+        DiskTier(Path directory, long maxBytes) throws IOException {
+            this.directory = directory;
+            this.maxBytes = maxBytes;
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "*.pdf")) {
+                for (Path file : leftovers) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+
+        void put(DocumentKey key, RenderedDocument document) {
+            byte[] content = document.content();
+            if (content.length > maxBytes) {
+                return;
+            }
+            Path file = directory.resolve(UUID.randomUUID() + ".pdf");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                log.warn("Could not spill cached PDF {} to disk", key, e);
+                deleteQuietly(file);
+                return;
+            }
+            synchronized (this) {
+                DiskEntry previous = entries.put(key, new DiskEntry(file, document.filename(), content.length));
+                if (previous != null) {
+                    totalBytes -= previous.size();
+                    deleteQuietly(previous.file());
+                }
+                totalBytes += content.length;
+                Iterator<Map.Entry<DocumentKey, DiskEntry>> eldest = entries.entrySet().iterator();
+                while (totalBytes > maxBytes && eldest.hasNext()) {
+                    DiskEntry evicted = eldest.next().getValue();
+                    eldest.remove();
+                    totalBytes -= evicted.size();
+                    deleteQuietly(evicted.file());
+                }
+            }
+        }
+
+        RenderedDocument get(DocumentKey key) {
+            DiskEntry entry;
+            synchronized (this) {
+                entry = entries.get(key);
+            }
+            if (entry == null) {
+                return null;
+            }
+            try {
+                return new RenderedDocument(entry.filename(), Files.readAllBytes(entry.file()));
+            } catch (NoSuchFileException e) {
+                return null; // Evicted while we were looking it up
+            } catch (IOException e) {
+                log.warn("Could not read spilled PDF {}", key, e);
+                return null;
+            }
+        }
+
+        synchronized long totalBytes() {
+            return totalBytes;
+        }
+
+        private static void deleteQuietly(Path file) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.debug("Could not delete {}", file, e);
+            }
+        }
+
+        private record DiskEntry(Path file, String filename, int size) {
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.clinicapp.backend.service.utils;
+
+import com.clinicapp.backend.model.core.Invoice;
+import com.clinicapp.backend.model.core.InvoiceStatus;
+import com.clinicapp.backend.repository.core.InvoiceRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams many documents into a single ZIP archive.
+ * <p>
+ * PDFs are rendered in parallel on a bounded pool, but each export keeps at most
+ * {@code in-flight} documents rendered or rendering ahead of the one being written, and entries
+ * are written in order. Writing blocks when the client reads slowly, which stops new renders from
+ * being submitted, so memory per export is bounded by the window rather than the number of documents.
+ */
+@Service
+@Slf4j
+public class DocumentExportService {
+
+    private static final int ID_PAGE_SIZE = 500;
+
+    private final InvoiceRepository invoiceRepository;
+    private final PdfGenerationService pdfGenerationService;
+    private final int renderThreads;
+    private final int queueCapacity;
+    private final int inFlight;
+
+    private ThreadPoolTaskExecutor renderExecutor;
+
+    public DocumentExportService(
+            InvoiceRepository invoiceRepository,
+            PdfGenerationService pdfGenerationService,
+            @Value("${application.documents.export.render-threads:4}") int renderThreads,
+            @Value("${application.documents.export.queue-capacity:64}") int queueCapacity,
+            @Value("${application.documents.export.in-flight:16}") int inFlight) {
+        this.invoiceRepository = invoiceRepository;
+        this.pdfGenerationService = pdfGenerationService;
+        this.renderThreads = renderThreads;
+        this.queueCapacity = queueCapacity;
+        this.inFlight = inFlight;
+    }
+
+    @PostConstruct
+    void start() {
+        renderExecutor = new ThreadPoolTaskExecutor();
+        renderExecutor.setThreadNamePrefix("pdf-render-");
+        renderExecutor.setCorePoolSize(renderThreads);
+        renderExecutor.setMaxPoolSize(renderThreads);
+        renderExecutor.setQueueCapacity(queueCapacity);
+        // When many exports run at once, the exporting thread renders itself instead of queueing more work
+        renderExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        renderExecutor.initialize();
+    }
+
+    @PreDestroy
+    void stop() {
+        renderExecutor.shutdown();
+    }
+
+    /**
+     * Writes a ZIP of the PDFs of all invoices issued within the date range (inclusive), optionally
+     * only those with the given status. The stream is finished but not closed.
+     */
+    public void exportInvoices(LocalDate startDate, LocalDate endDate, InvoiceStatus status, OutputStream outputStream) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        // PDF content streams are already compressed, so trade ratio for throughput
+        zip.setLevel(Deflater.BEST_SPEED);
+        Deque<Future<RenderedDocument>> pending = new ArrayDeque<>(inFlight);
+        int exported = 0;
+        try {
+            Long cursor = 0L;
+            List<Long> ids;
+            do {
+                ids = invoiceRepository.findIdsIssuedBetweenAfter(startDate, endDate, status, cursor, Limit.of(ID_PAGE_SIZE));
+                for (Long id : ids) {
+                    if (pending.size() == inFlight) {
+                        exported += writeEntry(zip, pending.removeFirst());
+                    }
+                    pending.addLast(renderExecutor.submit(() -> renderInvoice(id)));
+                }
+                if (!ids.isEmpty()) {
+                    cursor = ids.get(ids.size() - 1);
+                }
+            } while (ids.size() == ID_PAGE_SIZE);
+
+            while (!pending.isEmpty()) {
+                exported += writeEntry(zip, pending.removeFirst());
+            }
+            zip.finish();
+            log.info("Exported {} invoice PDFs issued between {} and {}", exported, startDate, endDate);
+        } finally {
+            // Client went away or a render failed: don't keep rendering for nobody
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private RenderedDocument renderInvoice(Long id) throws IOException {
+        Invoice invoice = invoiceRepository.findForDocumentById(id).orElse(null);
+        if (invoice == null) {
+            return null; // Deleted since its id was read
+        }
+        String filename = String.format("invoice_%d_patient_%d.pdf", invoice.getId(), invoice.getPatient().getId());
+        return new RenderedDocument(filename, pdfGenerationService.generateInvoicePdf(invoice));
+    }
+
+    /**
+     * Waits for the document and writes it as the next entry; returns the number of entries written.
+     */
+    private static int writeEntry(ZipOutputStream zip, Future<RenderedDocument> future) throws IOException {
+        RenderedDocument document;
+        try {
+            document = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a PDF to render");
+        } catch (ExecutionException e) {
+            throw new IOException("Error generating PDF for export", e.getCause());
+        }
+        if (document == null) {
+            return 0;
+        }
+        zip.putNextEntry(new ZipEntry(document.filename()));
+        zip.write(document.content());
+        zip.closeEntry();
+        return 1;
+    }
+
+    private record RenderedDocument(String filename, byte[] content) {
+    }
+}
@@ -1,18 +1,27 @@
 package com.clinicapp.backend.service.utils;
 
+import com.clinicapp.backend.model.core.Appointment;
 import com.clinicapp.backend.model.core.Invoice;
+import com.clinicapp.backend.model.core.Patient;
 import com.clinicapp.backend.model.core.Prescription;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDFormContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.font.Standard14Fonts; // Use Standard14Fonts
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
+/**
+ * Renders prescriptions and invoices from {@link PdfTemplate}s compiled once at startup.
+ * Only the patient, doctor and invoice values are drawn per document.
+ */
 @Service
 public class PdfGenerationService {
 
@@ -21,317 +30,301 @@ public class PdfGenerationService {
     private static final float FONT_SIZE_LARGE = 16;
     private static final float LEADING = 1.5f * FONT_SIZE_NORMAL; // Line spacing
 
-    private final PDType1Font FONT_NORMAL = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
-    private final PDType1Font FONT_BOLD = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+    private static final Standard14Fonts.FontName FONT_NORMAL = Standard14Fonts.FontName.HELVETICA;
+    private static final Standard14Fonts.FontName FONT_BOLD = Standard14Fonts.FontName.HELVETICA_BOLD;
+
+    private static final PDRectangle PAGE = PDRectangle.LETTER;
+    private static final float TOP = PAGE.getHeight() - MARGIN;
+    private static final float CONTENT_WIDTH = PAGE.getWidth() - 2 * MARGIN;
+    private static final float RIGHT_MARGIN_X = PAGE.getWidth() - MARGIN;
+    private static final float VALUE_X = MARGIN + 100; // Values are indented past their labels
+
+    // Prescription layout: label rows on the first page
+    private static final float RX_PATIENT_Y = TOP - LEADING * 2;
+    private static final float RX_DOCTOR_Y = RX_PATIENT_Y - LEADING;
+    private static final float RX_DATE_Y = RX_DOCTOR_Y - LEADING;
+    private static final float RX_MEDICATION_Y = RX_DATE_Y - LEADING * 2;
+    private static final float RX_DOSAGE_Y = RX_MEDICATION_Y - LEADING;
+    private static final float RX_FREQUENCY_Y = RX_DOSAGE_Y - LEADING;
+    private static final float RX_SIGNATURE_Y = MARGIN + LEADING;
+
+    // Invoice layout: clinic/invoice details, bill-to block and the item table header
+    private static final float INV_DETAILS_Y = TOP - LEADING * 2;
+    private static final float INV_DETAILS_LABEL_X = RIGHT_MARGIN_X - 150;
+    private static final float INV_DETAILS_VALUE_X = RIGHT_MARGIN_X - 50;
+    private static final float INV_BILL_TO_Y = INV_DETAILS_Y - LEADING * 6;
+    private static final float INV_TABLE_HEADER_Y = INV_BILL_TO_Y - LEADING * 6;
+    private static final float INV_AMOUNT_RIGHT_X = MARGIN + CONTENT_WIDTH - 50;
+    private static final float INV_CONTINUED_TABLE_HEADER_Y = TOP - LEADING * 2;
+
+    // Medical record layout: patient details on the first page, then flowed sections
+    private static final float FONT_SIZE_SECTION = 14;
+    private static final float MR_DETAILS_Y = TOP - LEADING * 2;
+    private static final String[] MR_DETAIL_LABELS = {"Patient:", "Date of Birth:", "Gender:", "Phone:", "Email:", "Address:"};
+    private static final float ENTRY_INDENT = 15;
 
     private final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final PdfTemplate prescriptionTemplate;
+    private final PdfTemplate invoiceTemplate;
+    private final PdfTemplate medicalRecordTemplate;
+
+    public PdfGenerationService() {
+        try {
+            this.prescriptionTemplate = buildPrescriptionTemplate();
+            this.invoiceTemplate = buildInvoiceTemplate();
+            this.medicalRecordTemplate = buildMedicalRecordTemplate();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compile PDF templates", e);
+        }
+    }
 
     public byte[] generatePrescriptionPdf(Prescription prescription) throws IOException {
-        try (PDDocument document = new PDDocument(); ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            PDPage page = new PDPage();
-            document.addPage(page);
-
-            float yPosition = page.getMediaBox().getHeight() - MARGIN;
-            float contentWidth = page.getMediaBox().getWidth() - 2 * MARGIN;
-
-            try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
-
-                // --- Header ---
-                contentStream.setFont(FONT_BOLD, FONT_SIZE_LARGE);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(MARGIN, yPosition);
-                contentStream.showText("Prescription");
-                contentStream.endText();
-                yPosition -= LEADING * 2; // Extra space after header
-
-                // --- Patient & Doctor Info ---
-                contentStream.setFont(FONT_BOLD, FONT_SIZE_NORMAL);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(MARGIN, yPosition);
-                contentStream.showText("Patient:");
-                contentStream.endText();
-
-                contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(MARGIN + 100, yPosition); // Indent value
-                contentStream.showText(prescription.getPatient().getFirstName() + " " + prescription.getPatient().getLastName());
-                contentStream.endText();
-                yPosition -= LEADING;
-
-                contentStream.setFont(FONT_BOLD, FONT_SIZE_NORMAL);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(MARGIN, yPosition);
-                contentStream.showText("Prescribed by:");
-                contentStream.endText();
-
-                contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(MARGIN + 100, yPosition);
-                contentStream.showText("Dr. " + prescription.getDoctor().getFirstName() + " " + prescription.getDoctor().getLastName());
-                contentStream.endText();
-                yPosition -= LEADING;
-
-                contentStream.setFont(FONT_BOLD, FONT_SIZE_NORMAL);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(MARGIN, yPosition);
-                contentStream.showText("Date:");
-                contentStream.endText();
-
-                contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(MARGIN + 100, yPosition);
-                contentStream.showText(prescription.getPrescriptionDate().format(DATE_FORMATTER));
-                contentStream.endText();
-                yPosition -= LEADING * 2; // Extra space
-
-                // --- Prescription Details ---
-                contentStream.setFont(FONT_BOLD, FONT_SIZE_NORMAL);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(MARGIN, yPosition);
-                contentStream.showText("Medication:");
-                contentStream.endText();
-
-                contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(MARGIN + 100, yPosition);
-                contentStream.showText(prescription.getMedicationName());
-                contentStream.endText();
-                yPosition -= LEADING;
-
-                contentStream.setFont(FONT_BOLD, FONT_SIZE_NORMAL);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(MARGIN, yPosition);
-                contentStream.showText("Dosage:");
-                contentStream.endText();
-
-                contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(MARGIN + 100, yPosition);
-                contentStream.showText(prescription.getDosage());
-                contentStream.endText();
-                yPosition -= LEADING;
-
-                contentStream.setFont(FONT_BOLD, FONT_SIZE_NORMAL);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(MARGIN, yPosition);
-                contentStream.showText("Frequency:");
-                contentStream.endText();
-
-                contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(MARGIN + 100, yPosition);
-                contentStream.showText(prescription.getFrequency());
-                contentStream.endText();
-                yPosition -= LEADING;
-
-                if (prescription.getInstructions() != null && !prescription.getInstructions().isEmpty()) {
-                    contentStream.setFont(FONT_BOLD, FONT_SIZE_NORMAL);
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(MARGIN, yPosition);
-                    contentStream.showText("Instructions:");
-                    contentStream.endText();
-
-                    contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(MARGIN + 100, yPosition);
-                    // Basic wrapping - consider a more robust text wrapping utility for long instructions
-                    contentStream.showText(prescription.getInstructions());
-                    contentStream.endText();
-                    yPosition -= LEADING;
+        return prescriptionTemplate.render(writer -> {
+            // --- Patient & Doctor Info ---
+            writer.text(VALUE_X, RX_PATIENT_Y, FONT_NORMAL, FONT_SIZE_NORMAL,
+                    prescription.getPatient().getFirstName() + " " + prescription.getPatient().getLastName());
+            writer.text(VALUE_X, RX_DOCTOR_Y, FONT_NORMAL, FONT_SIZE_NORMAL,
+                    "Dr. " + prescription.getDoctor().getFirstName() + " " + prescription.getDoctor().getLastName());
+            writer.text(VALUE_X, RX_DATE_Y, FONT_NORMAL, FONT_SIZE_NORMAL, prescription.getPrescriptionDate().format(DATE_FORMATTER));
+
+            // --- Prescription Details ---
+            writer.text(VALUE_X, RX_MEDICATION_Y, FONT_NORMAL, FONT_SIZE_NORMAL, prescription.getMedicationName());
+            writer.text(VALUE_X, RX_DOSAGE_Y, FONT_NORMAL, FONT_SIZE_NORMAL, prescription.getDosage());
+            writer.text(VALUE_X, RX_FREQUENCY_Y, FONT_NORMAL, FONT_SIZE_NORMAL, prescription.getFrequency());
+
+            // --- Optional fields flow below, wrapping onto further pages if needed ---
+            if (prescription.getInstructions() != null && !prescription.getInstructions().isEmpty()) {
+                writer.field(MARGIN, FONT_BOLD, "Instructions:", VALUE_X, CONTENT_WIDTH - 100,
+                        FONT_NORMAL, FONT_SIZE_NORMAL, LEADING, prescription.getInstructions());
+            }
+            if (prescription.getEndDate() != null) {
+                writer.field(MARGIN, FONT_BOLD, "End Date:", VALUE_X, CONTENT_WIDTH - 100,
+                        FONT_NORMAL, FONT_SIZE_NORMAL, LEADING, prescription.getEndDate().format(DATE_FORMATTER));
+            }
+        });
+    }
+
+    public byte[] generateInvoicePdf(Invoice invoice) throws IOException {
+        return invoiceTemplate.render(writer -> {
+            // --- Invoice Details (Right Aligned) ---
+            writer.text(INV_DETAILS_VALUE_X, INV_DETAILS_Y, FONT_NORMAL, FONT_SIZE_NORMAL, String.valueOf(invoice.getId()));
+            writer.text(INV_DETAILS_VALUE_X, INV_DETAILS_Y - LEADING, FONT_NORMAL, FONT_SIZE_NORMAL, invoice.getIssueDate().format(DATE_FORMATTER));
+            writer.text(INV_DETAILS_VALUE_X, INV_DETAILS_Y - LEADING * 2, FONT_NORMAL, FONT_SIZE_NORMAL, invoice.getDueDate().format(DATE_FORMATTER));
+            writer.text(INV_DETAILS_VALUE_X, INV_DETAILS_Y - LEADING * 3, FONT_NORMAL, FONT_SIZE_NORMAL, invoice.getStatus().name());
+
+            // --- Bill To ---
+            float y = INV_BILL_TO_Y - LEADING;
+            writer.text(MARGIN, y, FONT_NORMAL, FONT_SIZE_NORMAL, invoice.getPatient().getFirstName() + " " + invoice.getPatient().getLastName());
+            writer.text(MARGIN, y -= LEADING, FONT_NORMAL, FONT_SIZE_NORMAL, invoice.getPatient().getAddress());
+            writer.text(MARGIN, y -= LEADING, FONT_NORMAL, FONT_SIZE_NORMAL, "Phone: " + invoice.getPatient().getPhoneNumber());
+            if (invoice.getPatient().getEmail() != null) {
+                writer.text(MARGIN, y - LEADING, FONT_NORMAL, FONT_SIZE_NORMAL, "Email: " + invoice.getPatient().getEmail());
+            }
+
+            // --- Invoice Items (Simplified - using notes field) ---
+            // For a real application, you'd likely have InvoiceItem entities
+            String description = invoice.getNotes() != null ? invoice.getNotes() : "Consultation / Services";
+            if (invoice.getAppointment() != null) {
+                description += " (Appointment: " + invoice.getAppointment().getStartTime().format(DATE_FORMATTER) + ")";
+            }
+            String amount = String.format("%.2f", invoice.getTotalAmount());
+            writer.row(MARGIN, CONTENT_WIDTH - 120, FONT_NORMAL, FONT_SIZE_NORMAL, LEADING, description, INV_AMOUNT_RIGHT_X, amount);
+            writer.gap(LEADING);
+
+            // --- Total ---
+            writer.row(RIGHT_MARGIN_X - 100, 60, FONT_BOLD, FONT_SIZE_NORMAL, LEADING, "Total:", RIGHT_MARGIN_X, amount);
+        });
+    }
+
+    /**
+     * Writes a patient's full medical record straight to {@code outputStream}. Rows are pulled from
+     * the streams one at a time as pages fill up, and page content is buffered in temporary files
+     * rather than on the heap, so records of hundreds of pages don't need more memory than short ones.
+     * The streams must stay open (inside their transaction) until this returns.
+     */
+    public void generateMedicalRecordPdf(Patient patient, Stream<Appointment> appointments, Stream<Prescription> prescriptions,
+                                         Stream<Invoice> invoices, OutputStream outputStream) throws IOException {
+        medicalRecordTemplate.render(writer -> {
+            // --- Patient Details ---
+            String[] details = {
+                    patient.getFirstName() + " " + patient.getLastName(),
+                    patient.getDateOfBirth() != null ? patient.getDateOfBirth().format(DATE_FORMATTER) : "",
+                    orEmpty(patient.getGender()),
+                    orEmpty(patient.getPhoneNumber()),
+                    orEmpty(patient.getEmail()),
+                    orEmpty(patient.getAddress())
+            };
+            for (int i = 0; i < details.length; i++) {
+                writer.text(VALUE_X, MR_DETAILS_Y - LEADING * i, FONT_NORMAL, FONT_SIZE_NORMAL, details[i]);
+            }
+
+            section(writer, "Medical History");
+            writer.paragraph(MARGIN, CONTENT_WIDTH, FONT_NORMAL, FONT_SIZE_NORMAL, LEADING, orNone(patient.getMedicalHistory()));
+            section(writer, "Allergies");
+            writer.paragraph(MARGIN, CONTENT_WIDTH, FONT_NORMAL, FONT_SIZE_NORMAL, LEADING, orNone(patient.getAllergies()));
+
+            // --- Appointments ---
+            section(writer, "Appointments");
+            boolean any = false;
+            for (Iterator<Appointment> it = appointments.iterator(); it.hasNext(); ) {
+                Appointment appointment = it.next();
+                any = true;
+                writer.row(MARGIN, CONTENT_WIDTH - 120, FONT_BOLD, FONT_SIZE_NORMAL, LEADING,
+                        appointment.getStartTime().format(DATE_TIME_FORMATTER) + "  Dr. " + appointment.getDoctor().getFirstName()
+                                + " " + appointment.getDoctor().getLastName(),
+                        RIGHT_MARGIN_X, appointment.getStatus().name());
+                if (appointment.getNotes() != null && !appointment.getNotes().isBlank()) {
+                    writer.paragraph(MARGIN + ENTRY_INDENT, CONTENT_WIDTH - ENTRY_INDENT, FONT_NORMAL, FONT_SIZE_NORMAL, LEADING, appointment.getNotes());
+                }
+            }
+            if (!any) {
+                writer.paragraph(MARGIN, CONTENT_WIDTH, FONT_NORMAL, FONT_SIZE_NORMAL, LEADING, orNone(null));
+            }
+
+            // --- Prescriptions ---
+            section(writer, "Prescriptions");
+            any = false;
+            for (Iterator<Prescription> it = prescriptions.iterator(); it.hasNext(); ) {
+                Prescription prescription = it.next();
+                any = true;
+                String period = prescription.getPrescriptionDate().format(DATE_FORMATTER)
+                        + (prescription.getEndDate() != null ? " to " + prescription.getEndDate().format(DATE_FORMATTER) : "");
+                writer.row(MARGIN, CONTENT_WIDTH - 120, FONT_BOLD, FONT_SIZE_NORMAL, LEADING,
+                        prescription.getMedicationName() + " " + prescription.getDosage() + ", " + prescription.getFrequency(),
+                        RIGHT_MARGIN_X, period);
+                String prescribedBy = "Prescribed by Dr. " + prescription.getDoctor().getFirstName() + " " + prescription.getDoctor().getLastName();
+                if (prescription.getInstructions() != null && !prescription.getInstructions().isBlank()) {
+                    prescribedBy += ". " + prescription.getInstructions();
+                }
+                writer.paragraph(MARGIN + ENTRY_INDENT, CONTENT_WIDTH - ENTRY_INDENT, FONT_NORMAL, FONT_SIZE_NORMAL, LEADING, prescribedBy);
+            }
+            if (!any) {
+                writer.paragraph(MARGIN, CONTENT_WIDTH, FONT_NORMAL, FONT_SIZE_NORMAL, LEADING, orNone(null));
+            }
+
+            // --- Invoices ---
+            section(writer, "Invoices");
+            any = false;
+            for (Iterator<Invoice> it = invoices.iterator(); it.hasNext(); ) {
+                Invoice invoice = it.next();
+                any = true;
+                String description = "Invoice #" + invoice.getId() + " issued " + invoice.getIssueDate().format(DATE_FORMATTER)
+                        + " (" + invoice.getStatus().name() + ")";
+                if (invoice.getNotes() != null && !invoice.getNotes().isBlank()) {
+                    description += ": " + invoice.getNotes();
                 }
+                writer.row(MARGIN, CONTENT_WIDTH - 120, FONT_NORMAL, FONT_SIZE_NORMAL, LEADING,
+                        description, RIGHT_MARGIN_X, String.format("%.2f", invoice.getTotalAmount()));
+            }
+            if (!any) {
+                writer.paragraph(MARGIN, CONTENT_WIDTH, FONT_NORMAL, FONT_SIZE_NORMAL, LEADING, orNone(null));
+            }
+        }, outputStream);
+    }
 
-                 if (prescription.getEndDate() != null) {
-                     contentStream.setFont(FONT_BOLD, FONT_SIZE_NORMAL);
-                     contentStream.beginText();
-                     contentStream.newLineAtOffset(MARGIN, yPosition);
-                     contentStream.showText("End Date:");
-                     contentStream.endText();
-
-                     contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                     contentStream.beginText();
-                     contentStream.newLineAtOffset(MARGIN + 100, yPosition);
-                     contentStream.showText(prescription.getEndDate().format(DATE_FORMATTER));
-                     contentStream.endText();
-                     yPosition -= LEADING;
-                 }
-
-                // --- Footer/Signature Line (Optional) ---
-                yPosition -= LEADING * 3;
-                contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(MARGIN, yPosition);
-                contentStream.showText("Signature: _________________________");
-                contentStream.endText();
-
-            } // contentStream closes automatically
-
-            document.save(outputStream);
-            return outputStream.toByteArray();
-        }
+    private static void section(PdfTemplate.Writer writer, String title) throws IOException {
+        writer.gap(LEADING);
+        // Keep the heading on the same page as at least its first two lines
+        writer.keepTogether(LEADING * 3);
+        writer.paragraph(MARGIN, CONTENT_WIDTH, FONT_BOLD, FONT_SIZE_SECTION, LEADING, title);
     }
 
-    public byte[] generateInvoicePdf(Invoice invoice) throws IOException {
-         try (PDDocument document = new PDDocument(); ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-             PDPage page = new PDPage();
-             document.addPage(page);
-
-             float yPosition = page.getMediaBox().getHeight() - MARGIN;
-             float contentWidth = page.getMediaBox().getWidth() - 2 * MARGIN;
-             float rightMarginX = page.getMediaBox().getWidth() - MARGIN;
-
-             try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
-
-                 // --- Header ---
-                 contentStream.setFont(FONT_BOLD, FONT_SIZE_LARGE);
-                 contentStream.beginText();
-                 contentStream.newLineAtOffset(MARGIN, yPosition);
-                 contentStream.showText("Invoice");
-                 contentStream.endText();
-                 yPosition -= LEADING * 2;
-
-                 // --- Clinic Info (Placeholder) ---
-                 contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                 contentStream.beginText();
-                 contentStream.newLineAtOffset(MARGIN, yPosition);
-                 contentStream.showText("Your Clinic Name");
-                 contentStream.newLineAtOffset(0, -LEADING); // Move down
-                 contentStream.showText("123 Clinic Address");
-                 contentStream.newLineAtOffset(0, -LEADING);
-                 contentStream.showText("City, Postal Code");
-                 contentStream.newLineAtOffset(0, -LEADING);
-                 contentStream.showText("Phone: (123) 456-7890");
-                 contentStream.endText();
-
-                 // --- Invoice Details (Right Aligned) ---
-                 float invoiceDetailsY = yPosition; // Align with clinic info top
-                 contentStream.setFont(FONT_BOLD, FONT_SIZE_NORMAL);
-                 contentStream.beginText();
-                 contentStream.newLineAtOffset(rightMarginX - 150, invoiceDetailsY); // Adjust offset for alignment
-                 contentStream.showText("Invoice #: ");
-                 contentStream.endText();
-                 contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                 contentStream.beginText();
-                 contentStream.newLineAtOffset(rightMarginX - 50, invoiceDetailsY);
-                 contentStream.showText(String.valueOf(invoice.getId())); // Use invoice ID as number
-                 contentStream.endText();
-                 invoiceDetailsY -= LEADING;
-
-                 contentStream.setFont(FONT_BOLD, FONT_SIZE_NORMAL);
-                 contentStream.beginText();
-                 contentStream.newLineAtOffset(rightMarginX - 150, invoiceDetailsY);
-                 contentStream.showText("Issue Date: ");
-                 contentStream.endText();
-                 contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                 contentStream.beginText();
-                 contentStream.newLineAtOffset(rightMarginX - 50, invoiceDetailsY);
-                 contentStream.showText(invoice.getIssueDate().format(DATE_FORMATTER));
-                 contentStream.endText();
-                 invoiceDetailsY -= LEADING;
-
-                 contentStream.setFont(FONT_BOLD, FONT_SIZE_NORMAL);
-                 contentStream.beginText();
-                 contentStream.newLineAtOffset(rightMarginX - 150, invoiceDetailsY);
-                 contentStream.showText("Due Date: ");
-                 contentStream.endText();
-                 contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                 contentStream.beginText();
-                 contentStream.newLineAtOffset(rightMarginX - 50, invoiceDetailsY);
-                 contentStream.showText(invoice.getDueDate().format(DATE_FORMATTER));
-                 contentStream.endText();
-                 invoiceDetailsY -= LEADING;
-
-                 contentStream.setFont(FONT_BOLD, FONT_SIZE_NORMAL);
-                 contentStream.beginText();
-                 contentStream.newLineAtOffset(rightMarginX - 150, invoiceDetailsY);
-                 contentStream.showText("Status: ");
-                 contentStream.endText();
-                 contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                 contentStream.beginText();
-                 contentStream.newLineAtOffset(rightMarginX - 50, invoiceDetailsY);
-                 contentStream.showText(invoice.getStatus().name());
-                 contentStream.endText();
-
-
-                 yPosition -= LEADING * 6; // Move down past clinic/invoice details
-
-                 // --- Bill To ---
-                 contentStream.setFont(FONT_BOLD, FONT_SIZE_NORMAL);
-                 contentStream.beginText();
-                 contentStream.newLineAtOffset(MARGIN, yPosition);
-                 contentStream.showText("Bill To:");
-                 contentStream.endText();
-                 yPosition -= LEADING;
-
-                 contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                 contentStream.beginText();
-                 contentStream.newLineAtOffset(MARGIN, yPosition);
-                 contentStream.showText(invoice.getPatient().getFirstName() + " " + invoice.getPatient().getLastName());
-                 contentStream.newLineAtOffset(0, -LEADING);
-                 contentStream.showText(invoice.getPatient().getAddress()); // Assuming Patient has address
-                 contentStream.newLineAtOffset(0, -LEADING);
-                 contentStream.showText("Phone: " + invoice.getPatient().getPhoneNumber());
-                 if (invoice.getPatient().getEmail() != null) {
-                     contentStream.newLineAtOffset(0, -LEADING);
-                     contentStream.showText("Email: " + invoice.getPatient().getEmail());
-                 }
-                 contentStream.endText();
-                 yPosition -= LEADING * 5; // Space before items
-
-
-                 // --- Invoice Items (Simplified - using notes field) ---
-                 // For a real application, you'd likely have InvoiceItem entities
-                 contentStream.setFont(FONT_BOLD, FONT_SIZE_NORMAL);
-                 contentStream.beginText();
-                 contentStream.newLineAtOffset(MARGIN, yPosition);
-                 contentStream.showText("Description");
-                 contentStream.newLineAtOffset(contentWidth - 50, 0); // Move to amount column
-                 contentStream.showText("Amount");
-                 contentStream.endText();
-                 yPosition -= LEADING * 0.5f; // Small space
-
-                 // Draw line
-                 contentStream.moveTo(MARGIN, yPosition);
-                 contentStream.lineTo(rightMarginX, yPosition);
-                 contentStream.stroke();
-                 yPosition -= LEADING;
-
-
-                 contentStream.setFont(FONT_NORMAL, FONT_SIZE_NORMAL);
-                 contentStream.beginText();
-                 contentStream.newLineAtOffset(MARGIN, yPosition);
-                 // Basic display of notes - needs wrapping for long text
-                 String description = invoice.getNotes() != null ? invoice.getNotes() : "Consultation / Services";
-                 if (invoice.getAppointment() != null) {
-                     description += " (Appointment: " + invoice.getAppointment().getStartTime().format(DATE_FORMATTER) + ")";
-                 }
-                 contentStream.showText(description);
-
-                 // Show total amount aligned right
-                 String amountStr = String.format("%.2f", invoice.getTotalAmount());
-                 float amountWidth = FONT_NORMAL.getStringWidth(amountStr) / 1000 * FONT_SIZE_NORMAL;
-                 contentStream.newLineAtOffset(contentWidth - 50 - amountWidth, 0); // Adjust for alignment
-                 contentStream.showText(amountStr);
-                 contentStream.endText();
-                 yPosition -= LEADING * 2; // Space after items
-
-
-                 // --- Total ---
-                 contentStream.setFont(FONT_BOLD, FONT_SIZE_NORMAL);
-                 contentStream.beginText();
-                 float totalX = rightMarginX - 100; // Position for "Total:"
-                 contentStream.newLineAtOffset(totalX, yPosition);
-                 contentStream.showText("Total:");
-                 // Align amount
-                 String totalAmountStr = String.format("%.2f", invoice.getTotalAmount());
-                 float totalAmountWidth = FONT_BOLD.getStringWidth(totalAmountStr) / 1000 * FONT_SIZE_NORMAL;
-                 contentStream.newLineAtOffset(rightMarginX - totalX - totalAmountWidth, 0); // Adjust for alignment
-                 contentStream.showText(totalAmountStr);
-                 contentStream.endText();
-
-             } // contentStream closes automatically
-
-             document.save(outputStream);
-             return outputStream.toByteArray();
-         }
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String orNone(String value) {
+        return value != null && !value.isBlank() ? value : "None recorded.";
+    }
+
+    // --- Templates: everything below is drawn once, at startup ---
+
+    private PdfTemplate buildPrescriptionTemplate() throws IOException {
+        return PdfTemplate.builder()
+                .pageSize(PAGE)
+                .firstPageLayer(cs -> {
+                    // --- Header ---
+                    showText(cs, FONT_BOLD, FONT_SIZE_LARGE, MARGIN, TOP, "Prescription");
+                    // --- Labels ---
+                    showText(cs, FONT_BOLD, FONT_SIZE_NORMAL, MARGIN, RX_PATIENT_Y, "Patient:");
+                    showText(cs, FONT_BOLD, FONT_SIZE_NORMAL, MARGIN, RX_DOCTOR_Y, "Prescribed by:");
+                    showText(cs, FONT_BOLD, FONT_SIZE_NORMAL, MARGIN, RX_DATE_Y, "Date:");
+                    showText(cs, FONT_BOLD, FONT_SIZE_NORMAL, MARGIN, RX_MEDICATION_Y, "Medication:");
+                    showText(cs, FONT_BOLD, FONT_SIZE_NORMAL, MARGIN, RX_DOSAGE_Y, "Dosage:");
+                    showText(cs, FONT_BOLD, FONT_SIZE_NORMAL, MARGIN, RX_FREQUENCY_Y, "Frequency:");
+                })
+                .continuationLayer(cs -> showText(cs, FONT_BOLD, FONT_SIZE_LARGE, MARGIN, TOP, "Prescription (continued)"))
+                // --- Footer/Signature Line ---
+                .lastPageLayer(cs -> showText(cs, FONT_NORMAL, FONT_SIZE_NORMAL, MARGIN, RX_SIGNATURE_Y, "Signature: _________________________"))
+                .flow(RX_FREQUENCY_Y - LEADING, TOP - LEADING * 2, RX_SIGNATURE_Y + LEADING * 2)
+                .build();
+    }
+
+    private PdfTemplate buildInvoiceTemplate() throws IOException {
+        return PdfTemplate.builder()
+                .pageSize(PAGE)
+                .firstPageLayer(cs -> {
+                    // --- Header ---
+                    showText(cs, FONT_BOLD, FONT_SIZE_LARGE, MARGIN, TOP, "Invoice");
+
+                    // --- Clinic Info (Placeholder) ---
+                    showText(cs, FONT_NORMAL, FONT_SIZE_NORMAL, MARGIN, INV_DETAILS_Y, "Your Clinic Name");
+                    showText(cs, FONT_NORMAL, FONT_SIZE_NORMAL, MARGIN, INV_DETAILS_Y - LEADING, "123 Clinic Address");
+                    showText(cs, FONT_NORMAL, FONT_SIZE_NORMAL, MARGIN, INV_DETAILS_Y - LEADING * 2, "City, Postal Code");
+                    showText(cs, FONT_NORMAL, FONT_SIZE_NORMAL, MARGIN, INV_DETAILS_Y - LEADING * 3, "Phone: (123) 456-7890");
+
+                    // --- Invoice Detail Labels ---
+                    showText(cs, FONT_BOLD, FONT_SIZE_NORMAL, INV_DETAILS_LABEL_X, INV_DETAILS_Y, "Invoice #: ");
+                    showText(cs, FONT_BOLD, FONT_SIZE_NORMAL, INV_DETAILS_LABEL_X, INV_DETAILS_Y - LEADING, "Issue Date: ");
+                    showText(cs, FONT_BOLD, FONT_SIZE_NORMAL, INV_DETAILS_LABEL_X, INV_DETAILS_Y - LEADING * 2, "Due Date: ");
+                    showText(cs, FONT_BOLD, FONT_SIZE_NORMAL, INV_DETAILS_LABEL_X, INV_DETAILS_Y - LEADING * 3, "Status: ");
+
+                    // --- Bill To ---
+                    showText(cs, FONT_BOLD, FONT_SIZE_NORMAL, MARGIN, INV_BILL_TO_Y, "Bill To:");
+
+                    drawTableHeader(cs, INV_TABLE_HEADER_Y);
+                })
+                .continuationLayer(cs -> {
+                    showText(cs, FONT_BOLD, FONT_SIZE_LARGE, MARGIN, TOP, "Invoice (continued)");
+                    drawTableHeader(cs, INV_CONTINUED_TABLE_HEADER_Y);
+                })
+                .flow(INV_TABLE_HEADER_Y - LEADING * 1.5f, INV_CONTINUED_TABLE_HEADER_Y - LEADING * 1.5f, MARGIN)
+                .build();
+    }
+
+    private PdfTemplate buildMedicalRecordTemplate() throws IOException {
+        return PdfTemplate.builder()
+                .pageSize(PAGE)
+                // Records can run to hundreds of pages: buffer page content in temp files, not on the heap
+                .memoryUsage(MemoryUsageSetting.setupTempFileOnly())
+                .firstPageLayer(cs -> {
+                    showText(cs, FONT_BOLD, FONT_SIZE_LARGE, MARGIN, TOP, "Medical Record");
+                    for (int i = 0; i < MR_DETAIL_LABELS.length; i++) {
+                        showText(cs, FONT_BOLD, FONT_SIZE_NORMAL, MARGIN, MR_DETAILS_Y - LEADING * i, MR_DETAIL_LABELS[i]);
+                    }
+                })
+                .continuationLayer(cs -> showText(cs, FONT_BOLD, FONT_SIZE_LARGE, MARGIN, TOP, "Medical Record (continued)"))
+                .flow(MR_DETAILS_Y - LEADING * MR_DETAIL_LABELS.length, TOP - LEADING * 2, MARGIN)
+                .build();
+    }
+
+    private static void drawTableHeader(PDFormContentStream cs, float y) throws IOException {
+        showText(cs, FONT_BOLD, FONT_SIZE_NORMAL, MARGIN, y, "Description");
+        showText(cs, FONT_BOLD, FONT_SIZE_NORMAL, MARGIN + CONTENT_WIDTH - 50, y, "Amount");
+        float lineY = y - LEADING * 0.5f;
+        cs.moveTo(MARGIN, lineY);
+        cs.lineTo(RIGHT_MARGIN_X, lineY);
+        cs.stroke();
+    }
+
+    private static void showText(PDFormContentStream cs, Standard14Fonts.FontName font, float fontSize,
+                                 float x, float y, String text) throws IOException {
+        cs.setFont(new PDType1Font(font), fontSize);
+        cs.beginText();
+        cs.newLineAtOffset(x, y);
+        cs.showText(text);
+        cs.endText();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,439 @@
+package com.clinicapp.backend.service.utils;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessStreamCache.StreamCacheCreateFunction;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDFormContentStream;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * A compiled page layout for one document type.
+ * <p>
+ * Everything that is the same on every document (titles, labels, clinic details, rules, the
+ * signature line) is drawn once, when the template is built, into Flate-compressed content
+ * streams. Rendering a document copies those bytes into a Form XObject and places it on the
+ * page, so per-document work is limited to the variable fields. Variable content that can grow
+ * (instructions, line items) goes through {@link Writer#paragraph} and {@link Writer#row}, which
+ * wrap text and continue on new pages as needed.
+ * <p>
+ * Only the standard 14 fonts are supported, so layers can be replayed into any document.
+ * Templates are immutable and safe to share between threads.
+ */
+public final class PdfTemplate {
+
+    /**
+     * Draws static content. Called once per layer when the template is built.
+     */
+    @FunctionalInterface
+    public interface Layer {
+        void draw(PDFormContentStream contentStream) throws IOException;
+    }
+
+    /**
+     * Fills in the variable content of one document.
+     */
+    @FunctionalInterface
+    public interface Content {
+        void fill(Writer writer) throws IOException;
+    }
+
+    private final PDRectangle pageSize;
+    private final CompiledLayer firstPageLayer;
+    private final CompiledLayer continuationLayer;
+    private final CompiledLayer lastPageLayer;
+    private final float firstPageFlowTop;
+    private final float continuationFlowTop;
+    private final float flowBottom;
+    private final StreamCacheCreateFunction streamCache;
+
+    private PdfTemplate(Builder builder) throws IOException {
+        this.pageSize = builder.pageSize;
+        this.firstPageLayer = CompiledLayer.compile(builder.firstPageLayer, pageSize);
+        this.continuationLayer = CompiledLayer.compile(builder.continuationLayer, pageSize);
+        this.lastPageLayer = CompiledLayer.compile(builder.lastPageLayer, pageSize);
+        this.firstPageFlowTop = builder.firstPageFlowTop;
+        this.continuationFlowTop = builder.continuationFlowTop;
+        this.flowBottom = builder.flowBottom;
+        this.streamCache = builder.memoryUsage != null ? builder.memoryUsage.streamCache : null;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public PDRectangle getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Renders one document and returns the PDF bytes.
+     */
+    public byte[] render(Content content) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        render(content, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Renders one document into the given stream.
+     */
+    public void render(Content content, OutputStream outputStream) throws IOException {
+        try (PDDocument document = streamCache != null ? new PDDocument(streamCache) : new PDDocument()) {
+            try (Writer writer = new Writer(document)) {
+                content.fill(writer);
+            }
+            document.save(outputStream);
+        }
+    }
+
+    /**
+     * Writes the variable content of a document. Fixed-position text goes on the first page and
+     * must be written before any flowed content.
+     */
+    public final class Writer implements AutoCloseable {
+
+        private final PDDocument document;
+        private final Map<Standard14Fonts.FontName, PDType1Font> fonts = new EnumMap<>(Standard14Fonts.FontName.class);
+        private PDFormXObject continuationForm; // Added once per document, shared by its continuation pages
+        private PDPageContentStream contentStream;
+        private boolean firstPage = true;
+        private float y;
+
+        private Writer(PDDocument document) throws IOException {
+            this.document = document;
+            startPage(firstPageLayer != null ? firstPageLayer.instantiate(document) : null, firstPageFlowTop);
+        }
+
+        /**
+         * Text at a fixed position on the first page.
+         */
+        public void text(float x, float y, Standard14Fonts.FontName fontName, float fontSize, String text) throws IOException {
+            if (!firstPage) {
+                throw new IllegalStateException("Fixed-position text must be written before content flows onto a new page");
+            }
+            show(x, y, font(fontName), fontSize, text);
+        }
+
+        /**
+         * Wrapped text in the flow, starting at the current position. Lines that don't fit on the
+         * page continue on the next one.
+         *
+         * @param leading vertical advance per line
+         */
+        public void paragraph(float x, float width, Standard14Fonts.FontName fontName, float fontSize, float leading, String text) throws IOException {
+            PDFont font = font(fontName);
+            for (String line : wrap(font, fontSize, text, width)) {
+                ensureSpace(leading);
+                show(x, y, font, fontSize, line);
+                y -= leading;
+            }
+        }
+
+        /**
+         * A label at {@code labelX} followed by wrapped text at {@code x}; the label
+         * always lands on the same page as the first line of text.
+         */
+        public void field(float labelX, Standard14Fonts.FontName labelFontName, String label,
+                          float x, float width, Standard14Fonts.FontName fontName, float fontSize, float leading,
+                          String text) throws IOException {
+            PDFont font = font(fontName);
+            List<String> lines = wrap(font, fontSize, text, width);
+            ensureSpace(leading);
+            show(labelX, y, font(labelFontName), fontSize, label);
+            for (String line : lines) {
+                ensureSpace(leading);
+                show(x, y, font, fontSize, line);
+                y -= leading;
+            }
+        }
+
+        /**
+         * A wrapped label in the flow with a value right-aligned on its first line, e.g. an invoice line item.
+         */
+        public void row(float x, float width, Standard14Fonts.FontName fontName, float fontSize, float leading,
+                        String label, float valueRightX, String value) throws IOException {
+            PDFont font = font(fontName);
+            List<String> lines = wrap(font, fontSize, label, width);
+            ensureSpace(leading);
+            show(valueRightX - textWidth(font, fontSize, value), y, font, fontSize, value);
+            for (String line : lines) {
+                ensureSpace(leading);
+                show(x, y, font, fontSize, line);
+                y -= leading;
+            }
+        }
+
+        /**
+         * Starts a new page unless {@code height} still fits on this one, e.g. to keep a heading with
+         * the first lines below it.
+         */
+        public void keepTogether(float height) throws IOException {
+            ensureSpace(height);
+        }
+
+        /**
+         * Moves the flow down; a gap never starts a new page on its own.
+         */
+        public void gap(float height) {
+            y -= height;
+        }
+
+        /**
+         * Current vertical position of the flow.
+         */
+        public float getY() {
+            return y;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (lastPageLayer != null) {
+                contentStream.drawForm(lastPageLayer.instantiate(document));
+            }
+            contentStream.close();
+        }
+
+        private void ensureSpace(float height) throws IOException {
+            if (y - height < flowBottom) {
+                contentStream.close();
+                if (continuationForm == null && continuationLayer != null) {
+                    continuationForm = continuationLayer.instantiate(document);
+                }
+                firstPage = false;
+                startPage(continuationForm, continuationFlowTop);
+            }
+        }
+
+        private void startPage(PDFormXObject staticLayer, float flowTop) throws IOException {
+            PDPage page = new PDPage(pageSize);
+            document.addPage(page);
+            contentStream = new PDPageContentStream(document, page);
+            if (staticLayer != null) {
+                contentStream.drawForm(staticLayer);
+            }
+            y = flowTop;
+        }
+
+        private void show(float x, float y, PDFont font, float fontSize, String text) throws IOException {
+            contentStream.beginText();
+            contentStream.setFont(font, fontSize);
+            contentStream.newLineAtOffset(x, y);
+            contentStream.showText(text);
+            contentStream.endText();
+        }
+
+        private PDFont font(Standard14Fonts.FontName fontName) {
+            // Font objects are per document so concurrent renders never share PDFBox state
+            return fonts.computeIfAbsent(fontName, PDType1Font::new);
+        }
+    }
+
+    // --- Text layout helpers ---
+
+    public static float textWidth(PDFont font, float fontSize, String text) throws IOException {
+        return font.getStringWidth(text) / 1000 * fontSize;
+    }
+
+    /**
+     * Breaks text into lines no wider than {@code width}, on whitespace where possible and inside
+     * words that are longer than a line. Line breaks in the text are kept.
+     */
+    public static List<String> wrap(PDFont font, float fontSize, String text, float width) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String paragraph : text.split("\\R", -1)) {
+            StringBuilder line = new StringBuilder();
+            for (String word : paragraph.trim().split("\\s+")) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                String candidate = line.length() == 0 ? word : line + " " + word;
+                if (textWidth(font, fontSize, candidate) <= width) {
+                    line.setLength(0);
+                    line.append(candidate);
+                    continue;
+                }
+                if (line.length() > 0) {
+                    lines.add(line.toString());
+                    line.setLength(0);
+                }
+                while (textWidth(font, fontSize, word) > width) {
+                    int cut = fittingPrefixLength(font, fontSize, word, width);
+                    lines.add(word.substring(0, cut));
+                    word = word.substring(cut);
+                }
+                line.append(word);
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    private static int fittingPrefixLength(PDFont font, float fontSize, String word, float width) throws IOException {
+        int length = 1; // Always make progress, even if a single character is wider than the line
+        while (length < word.length() && textWidth(font, fontSize, word.substring(0, length + 1)) <= width) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * A static layer reduced to compressed content stream bytes plus the standard fonts it uses.
+     */
+    private static final class CompiledLayer {
+
+        private static final Map<String, Standard14Fonts.FontName> STANDARD_FONTS = new HashMap<>();
+
+        static {
+            for (Standard14Fonts.FontName fontName : Standard14Fonts.FontName.values()) {
+                STANDARD_FONTS.put(fontName.getName(), fontName);
+            }
+        }
+
+        private final byte[] content;
+        private final Map<COSName, Standard14Fonts.FontName> fonts;
+        private final PDRectangle bbox;
+
+        private CompiledLayer(byte[] content, Map<COSName, Standard14Fonts.FontName> fonts, PDRectangle bbox) {
+            this.content = content;
+            this.fonts = fonts;
+            this.bbox = bbox;
+        }
+
+        static CompiledLayer compile(Layer layer, PDRectangle pageSize) throws IOException {
+            if (layer == null) {
+                return null;
+            }
+            try (PDDocument scratch = new PDDocument()) {
+                PDFormXObject form = new PDFormXObject(scratch);
+                form.setResources(new PDResources());
+                form.setBBox(pageSize);
+                try (PDFormContentStream contentStream = new PDFormContentStream(form)) {
+                    layer.draw(contentStream);
+                }
+
+                Map<COSName, Standard14Fonts.FontName> fonts = new HashMap<>();
+                for (COSName name : form.getResources().getFontNames()) {
+                    PDFont font = form.getResources().getFont(name);
+                    Standard14Fonts.FontName fontName = STANDARD_FONTS.get(font.getName());
+                    if (fontName == null) {
+                        throw new IllegalArgumentException("Template layers may only use the standard 14 fonts, got " + font.getName());
+                    }
+                    fonts.put(name, fontName);
+                }
+
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (InputStream in = form.getContentStream().createInputStream();
+                     OutputStream out = new DeflaterOutputStream(compressed)) {
+                    in.transferTo(out);
+                }
+                return new CompiledLayer(compressed.toByteArray(), Map.copyOf(fonts), pageSize);
+            }
+        }
+
+        /**
+         * Creates the layer's Form XObject in the given document from the cached bytes.
+         */
+        PDFormXObject instantiate(PDDocument document) throws IOException {
+            PDFormXObject form = new PDFormXObject(document);
+            COSStream stream = form.getCOSObject();
+            try (OutputStream out = stream.createRawOutputStream()) {
+                out.write(content);
+            }
+            stream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+            form.setBBox(bbox);
+            PDResources resources = new PDResources();
+            for (Map.Entry<COSName, Standard14Fonts.FontName> font : fonts.entrySet()) {
+                resources.put(font.getKey(), new PDType1Font(font.getValue()));
+            }
+            form.setResources(resources);
+            return form;
+        }
+    }
+
+    public static final class Builder {
+
+        private PDRectangle pageSize = PDRectangle.LETTER;
+        private Layer firstPageLayer;
+        private Layer continuationLayer;
+        private Layer lastPageLayer;
+        private float firstPageFlowTop;
+        private float continuationFlowTop;
+        private float flowBottom;
+        private MemoryUsageSetting memoryUsage;
+
+        private Builder() {
+        }
+
+        public Builder pageSize(PDRectangle pageSize) {
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * Static content of the first page.
+         */
+        public Builder firstPageLayer(Layer layer) {
+            this.firstPageLayer = layer;
+            return this;
+        }
+
+        /**
+         * Static content of every page after the first.
+         */
+        public Builder continuationLayer(Layer layer) {
+            this.continuationLayer = layer;
+            return this;
+        }
+
+        /**
+         * Static content of the last page, e.g. a signature line. It is drawn below {@code flowBottom}.
+         */
+        public Builder lastPageLayer(Layer layer) {
+            this.lastPageLayer = layer;
+            return this;
+        }
+
+        /**
+         * Where flowed content starts on the first and following pages, and where it must stop.
+         */
+        public Builder flow(float firstPageTop, float continuationTop, float bottom) {
+            this.firstPageFlowTop = firstPageTop;
+            this.continuationFlowTop = continuationTop;
+            this.flowBottom = bottom;
+            return this;
+        }
+
+        /**
+         * Where PDFBox buffers page content while a document is built; by default in memory. Use
+         * {@link MemoryUsageSetting#setupTempFileOnly()} for documents that can run to hundreds of pages.
+         */
+        public Builder memoryUsage(MemoryUsageSetting memoryUsage) {
+            this.memoryUsage = memoryUsage;
+            return this;
+        }
+
+        public PdfTemplate build() throws IOException {
+            return new PdfTemplate(this);
+        }
+    }
+}
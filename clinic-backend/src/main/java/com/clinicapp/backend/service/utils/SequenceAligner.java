@@ -0,0 +1,41 @@
+package com.clinicapp.backend.service.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Moves a pooled id sequence past the highest id already in its table.
+ * <p>
+ * Used for tables whose ids came from an IDENTITY column before: the sequence that replaced it is
+ * created by schema update starting at 1 and would otherwise hand out ids that already exist.
+ * One instance is registered per entity in {@code SequenceAlignerConfig}.
+ */
+@Slf4j
+public class SequenceAligner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String sequenceName;
+    private final String tableName;
+    private final int allocationSize;
+
+    public SequenceAligner(JdbcTemplate jdbcTemplate, String sequenceName, String tableName, int allocationSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequenceName = sequenceName;
+        this.tableName = tableName;
+        this.allocationSize = allocationSize;
+    }
+
+    /**
+     * Never moves the sequence backwards, so running it on every start is safe.
+     */
+    public void align() {
+        // Names are constants from the entity mappings, never user input
+        Long next = jdbcTemplate.queryForObject(
+                "SELECT setval('" + sequenceName + "', GREATEST("
+                        + "(SELECT COALESCE(MAX(id), 0) FROM " + tableName + ") + ?, "
+                        + "(SELECT last_value FROM " + sequenceName + ")))",
+                Long.class,
+                allocationSize);
+        log.debug("{} aligned to {}", sequenceName, next);
+    }
+}
@@ -0,0 +1,125 @@
+package com.clinicapp.backend.config;
+
+import com.clinicapp.backend.ClinicBackendApplication;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two backend nodes in relay mode sharing an embedded Artemis STOMP broker, for the relay tests.
+ * Like the other context tests it needs the configured PostgreSQL database.
+ */
+final class BrokerRelayCluster implements AutoCloseable {
+
+    private final EmbeddedActiveMQ broker;
+    private final ConfigurableApplicationContext nodeA;
+    private final ConfigurableApplicationContext nodeB;
+
+    private BrokerRelayCluster(EmbeddedActiveMQ broker, ConfigurableApplicationContext nodeA, ConfigurableApplicationContext nodeB) {
+        this.broker = broker;
+        this.nodeA = nodeA;
+        this.nodeB = nodeB;
+    }
+
+    static BrokerRelayCluster start() throws Exception {
+        int stompPort = freePort();
+        EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(new ConfigurationImpl()
+                .setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                // Map STOMP /topic/* to multicast and /queue/* to anycast addresses, like RabbitMQ does
+                .addAcceptorConfiguration("stomp", "tcp://127.0.0.1:" + stompPort
+                        + "?protocols=STOMP;multicastPrefix=/topic/;anycastPrefix=/queue/"));
+        broker.start();
+        return new BrokerRelayCluster(broker, startNode(stompPort), startNode(stompPort));
+    }
+
+    ConfigurableApplicationContext nodeA() {
+        return nodeA;
+    }
+
+    ConfigurableApplicationContext nodeB() {
+        return nodeB;
+    }
+
+    @Override
+    public void close() throws Exception {
+        nodeA.close();
+        nodeB.close();
+        broker.stop();
+    }
+
+    static StompSession connect(ConfigurableApplicationContext node, String token) throws Exception {
+        WebSocketStompClient client = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        client.setMessageConverter(new StringMessageConverter());
+        StompHeaders connectHeaders = new StompHeaders();
+        if (token != null) {
+            connectHeaders.add("Authorization", "Bearer " + token);
+        }
+        String url = "ws://localhost:" + node.getEnvironment().getProperty("local.server.port") + "/ws";
+        return client.connectAsync(url, new WebSocketHttpHeaders(), connectHeaders, new StompSessionHandlerAdapter() {
+        }).get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Subscribes and waits for the broker's receipt, so nothing is published before the subscription exists.
+     */
+    static void subscribe(StompSession session, String destination, Consumer<String> handler) throws InterruptedException {
+        CountDownLatch subscribed = new CountDownLatch(1);
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination(destination);
+        headers.setReceipt(UUID.randomUUID().toString());
+        session.subscribe(headers, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders frameHeaders) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders frameHeaders, Object payload) {
+                handler.accept((String) payload);
+            }
+        }).addReceiptTask(subscribed::countDown);
+        assertTrue(subscribed.await(10, TimeUnit.SECONDS), "subscription to " + destination + " acknowledged");
+    }
+
+    private static ConfigurableApplicationContext startNode(int stompPort) {
+        return new SpringApplicationBuilder(ClinicBackendApplication.class)
+                .properties(
+                        "server.port=0",
+                        "application.websocket.broker.mode=relay",
+                        "application.websocket.broker.relay.host=127.0.0.1",
+                        "application.websocket.broker.relay.port=" + stompPort,
+                        // Chat history is node-local and refuses to start in relay mode
+                        "application.chat.enabled=false")
+                .run();
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
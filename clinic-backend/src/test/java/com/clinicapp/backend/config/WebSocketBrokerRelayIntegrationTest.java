@@ -0,0 +1,87 @@
+package com.clinicapp.backend.config;
+
+import com.clinicapp.backend.model.security.Role;
+import com.clinicapp.backend.model.security.User;
+import com.clinicapp.backend.repository.security.UserRepository;
+import com.clinicapp.backend.service.security.JwtService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompSession;
+
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.clinicapp.backend.config.BrokerRelayCluster.connect;
+import static com.clinicapp.backend.config.BrokerRelayCluster.subscribe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs two backend nodes in relay mode against an embedded Artemis STOMP broker and checks that
+ * messages sent on one node reach clients connected to the other. Like the other context tests it
+ * needs the configured PostgreSQL database. Cross-node throughput and latency are measured by
+ * {@link WebSocketBrokerRelayLoadTest}.
+ */
+class WebSocketBrokerRelayIntegrationTest {
+
+    private static BrokerRelayCluster cluster;
+
+    @BeforeAll
+    static void startBrokerAndNodes() throws Exception {
+        cluster = BrokerRelayCluster.start();
+    }
+
+    @AfterAll
+    static void stopNodesAndBroker() throws Exception {
+        if (cluster != null) {
+            cluster.close();
+        }
+    }
+
+    @Test
+    void topicMessageSentOnOneNodeReachesSubscriberOnTheOther() throws Exception {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        StompSession session = connect(cluster.nodeA(), null);
+        try {
+            subscribe(session, "/topic/relay-test", received::add);
+
+            cluster.nodeB().getBean(SimpMessagingTemplate.class).convertAndSend("/topic/relay-test", "hello from node B");
+
+            assertEquals("hello from node B", received.poll(10, TimeUnit.SECONDS));
+        } finally {
+            session.disconnect();
+        }
+    }
+
+    @Test
+    void userMessageSentOnOneNodeReachesUserConnectedToTheOther() throws Exception {
+        String email = "relay-" + UUID.randomUUID().toString().substring(0, 8) + "@example.com";
+        UserRepository userRepository = cluster.nodeA().getBean(UserRepository.class);
+        User user = userRepository.save(User.builder()
+                .username(email) // STOMP principal name is the username
+                .email(email)
+                .password("not-used")
+                .firstName("Relay")
+                .lastName("Test")
+                .role(Role.SECRETARY)
+                .build());
+        String token = cluster.nodeA().getBean(JwtService.class).generateToken(user);
+
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        StompSession session = connect(cluster.nodeA(), token);
+        try {
+            subscribe(session, "/user/queue/notifications", received::add);
+
+            cluster.nodeB().getBean(SimpMessagingTemplate.class)
+                    .convertAndSendToUser(user.getUsername(), "/queue/notifications", "private to " + email);
+
+            assertEquals("private to " + email, received.poll(10, TimeUnit.SECONDS));
+        } finally {
+            session.disconnect();
+            userRepository.delete(user);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.clinicapp.backend.config;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompSession;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.clinicapp.backend.config.BrokerRelayCluster.connect;
+import static com.clinicapp.backend.config.BrokerRelayCluster.subscribe;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Publishes a burst from one relay-mode node to a subscriber on the other and checks delivered
+ * messages per second and end-to-end latency (both nodes share this JVM's clock) against
+ * configurable floors and ceilings. The measured figures are published as test report entries.
+ * Excluded from the default build; run with
+ * {@code mvn test -Dgroups=load -DexcludedGroups= -Dtest=WebSocketBrokerRelayLoadTest -Dwebsocket.relay.messages=20000}.
+ */
+@Tag("load")
+class WebSocketBrokerRelayLoadTest {
+
+    private static final int MESSAGES = Integer.getInteger("websocket.relay.messages", 2000);
+    private static final int MIN_MESSAGES_PER_SECOND = Integer.getInteger("websocket.relay.min-rate", 500);
+    private static final int MAX_P99_MILLIS = Integer.getInteger("websocket.relay.max-p99-ms", 500);
+
+    private static BrokerRelayCluster cluster;
+
+    @BeforeAll
+    static void startBrokerAndNodes() throws Exception {
+        cluster = BrokerRelayCluster.start();
+    }
+
+    @AfterAll
+    static void stopNodesAndBroker() throws Exception {
+        if (cluster != null) {
+            cluster.close();
+        }
+    }
+
+    @Test
+    void crossNodeThroughputAndLatency(TestReporter reporter) throws Exception {
+        long[] latencies = new long[MESSAGES];
+        AtomicInteger delivered = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(MESSAGES);
+        StompSession session = connect(cluster.nodeA(), null);
+        try {
+            subscribe(session, "/topic/relay-benchmark", payload -> {
+                long latency = System.nanoTime() - Long.parseLong(payload);
+                int index = delivered.getAndIncrement();
+                if (index < MESSAGES) {
+                    latencies[index] = latency;
+                }
+                done.countDown();
+            });
+
+            SimpMessagingTemplate template = cluster.nodeB().getBean(SimpMessagingTemplate.class);
+            long start = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) {
+                template.convertAndSend("/topic/relay-benchmark", String.valueOf(System.nanoTime()));
+            }
+            assertTrue(done.await(60, TimeUnit.SECONDS), "all messages delivered across nodes");
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            double messagesPerSecond = MESSAGES / (elapsed / 1e9);
+            double p50Millis = latencies[MESSAGES / 2] / 1e6;
+            double p99Millis = latencies[(int) (MESSAGES * 0.99)] / 1e6;
+            reporter.publishEntry(Map.of(
+                    "messages", String.valueOf(MESSAGES),
+                    "messagesPerSecond", String.format("%.0f", messagesPerSecond),
+                    "latencyP50Millis", String.format("%.2f", p50Millis),
+                    "latencyP99Millis", String.format("%.2f", p99Millis),
+                    "latencyMaxMillis", String.format("%.2f", latencies[MESSAGES - 1] / 1e6)));
+
+            assertTrue(messagesPerSecond >= MIN_MESSAGES_PER_SECOND,
+                    String.format("cross-node rate %.0f msg/s below %d msg/s", messagesPerSecond, MIN_MESSAGES_PER_SECOND));
+            assertTrue(p99Millis <= MAX_P99_MILLIS,
+                    String.format("cross-node p99 latency %.2f ms above %d ms", p99Millis, MAX_P99_MILLIS));
+        } finally {
+            session.disconnect();
+        }
+    }
+}
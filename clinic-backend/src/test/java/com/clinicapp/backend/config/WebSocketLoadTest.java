@@ -0,0 +1,184 @@
+package com.clinicapp.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Connects thousands of in-process STOMP clients (raw WebSocket, no SockJS) to the simple broker
+ * and checks that broadcasts reach all of them, and that a client which stops reading is evicted
+ * instead of holding up everyone else. Excluded from the default build; run with
+ * {@code mvn test -Dgroups=load -DexcludedGroups= -Dwebsocket.load.clients=5000}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "application.websocket.send-time-limit-ms=2000",
+        "application.websocket.send-buffer-size-limit-bytes=65536"
+})
+class WebSocketLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("websocket.load.clients", 2000);
+    private static final int BROADCASTS = 20;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SimpleBrokerMessageHandler simpleBroker;
+
+    private final List<StompSession> sessions = new ArrayList<>();
+
+    @AfterEach
+    void disconnectAll() {
+        sessions.forEach(session -> {
+            if (session.isConnected()) {
+                session.disconnect();
+            }
+        });
+        sessions.clear();
+    }
+
+    @Test
+    void broadcastReachesThousandsOfClients(TestReporter reporter) throws Exception {
+        AtomicLong delivered = new AtomicLong();
+        CountDownLatch allDelivered = new CountDownLatch(CLIENTS * BROADCASTS);
+        connectAndSubscribe(CLIENTS, "/topic/load-test", payload -> {
+            delivered.incrementAndGet();
+            allDelivered.countDown();
+        });
+
+        long start = System.nanoTime();
+        for (int i = 0; i < BROADCASTS; i++) {
+            messagingTemplate.convertAndSend("/topic/load-test", "broadcast " + i);
+        }
+        boolean complete = allDelivered.await(120, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+
+        Timer outbound = meterRegistry.get("websocket.channel.latency").tag("channel", "outbound").timer();
+        reporter.publishEntry(Map.of(
+                "clients", String.valueOf(CLIENTS),
+                "broadcasts", String.valueOf(BROADCASTS),
+                "deliveries", String.valueOf(delivered.get()),
+                "elapsedMillis", String.valueOf(TimeUnit.NANOSECONDS.toMillis(elapsed)),
+                "deliveriesPerSecond", String.format("%.0f", delivered.get() / (elapsed / 1e9)),
+                "outboundLatencyMeanMillis", String.format("%.2f", outbound.mean(TimeUnit.MILLISECONDS)),
+                "outboundLatencyMaxMillis", String.format("%.2f", outbound.max(TimeUnit.MILLISECONDS))));
+        assertTrue(complete, "every client received every broadcast");
+    }
+
+    @Test
+    void clientThatStopsReadingIsEvicted() throws Exception {
+        double evictedBefore = meterRegistry.get("websocket.sessions.evicted").counter().count();
+
+        // One client blocks in its frame handler, so it stops reading from the socket
+        CountDownLatch release = new CountDownLatch(1);
+        connectAndSubscribe(1, "/topic/load-slow", payload -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CountDownLatch fastDelivered = new CountDownLatch(CLIENTS);
+        connectAndSubscribe(CLIENTS, "/topic/load-fast", payload -> fastDelivered.countDown());
+
+        try {
+            // Far more than the socket buffers can absorb
+            String chunk = "x".repeat(32 * 1024);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (meterRegistry.get("websocket.sessions.evicted").counter().count() == evictedBefore
+                    && System.nanoTime() < deadline) {
+                messagingTemplate.convertAndSend("/topic/load-slow", chunk);
+                Thread.sleep(5);
+            }
+            assertTrue(meterRegistry.get("websocket.sessions.evicted").counter().count() > evictedBefore,
+                    "slow session evicted");
+
+            // Everyone else is unaffected
+            messagingTemplate.convertAndSend("/topic/load-fast", "still here");
+            assertTrue(fastDelivered.await(30, TimeUnit.SECONDS), "fast clients still receive broadcasts");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private void connectAndSubscribe(int count, String destination, Consumer<String> handler) throws Exception {
+        int alreadySubscribed = subscriberCount(destination);
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new StringMessageConverter());
+        String url = "ws://localhost:" + port + "/ws/websocket";
+
+        List<CompletableFuture<StompSession>> connecting = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            connecting.add(client.connectAsync(url, new WebSocketHttpHeaders(), new StompHeaders(), new StompSessionHandlerAdapter() {
+            }));
+        }
+        for (CompletableFuture<StompSession> future : connecting) {
+            StompSession session = future.get(60, TimeUnit.SECONDS);
+            sessions.add(session);
+            session.subscribe(destination, new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders frameHeaders) {
+                    return String.class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders frameHeaders, Object payload) {
+                    handler.accept((String) payload);
+                }
+            });
+        }
+
+        // The simple broker doesn't acknowledge subscriptions, so wait until it has registered them all
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (subscriberCount(destination) < alreadySubscribed + count && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(subscriberCount(destination) >= alreadySubscribed + count, "all clients subscribed to " + destination);
+    }
+
+    private int subscriberCount(String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        Message<byte[]> probe = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        return simpleBroker.getSubscriptionRegistry().findSubscriptions(probe).size();
+    }
+}
@@ -0,0 +1,210 @@
+package com.clinicapp.backend.service.core;
+
+import com.clinicapp.backend.dto.core.AppointmentDTO;
+import com.clinicapp.backend.model.core.Appointment;
+import com.clinicapp.backend.model.core.Patient;
+import com.clinicapp.backend.model.security.Role;
+import com.clinicapp.backend.model.security.User;
+import com.clinicapp.backend.repository.core.AppointmentRepository;
+import com.clinicapp.backend.repository.core.PatientRepository;
+import com.clinicapp.backend.repository.security.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads book overlapping windows of one doctor's day at the same time. Checks that no two
+ * of the resulting appointments overlap, and publishes bookings per second and lock wait times as
+ * test report entries.
+ * Like the other context tests it needs the configured PostgreSQL database.
+ * <p>
+ * This class runs with the default single-node settings, where overlap checks are answered by the
+ * in-memory {@link AppointmentScheduleIndex}; {@link DistributedAppointmentBookingConcurrencyTest}
+ * repeats it with the distributed lock and database checks.
+ */
+@SpringBootTest
+class AppointmentBookingConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+    // Candidate starts every 15 minutes for 30-minute appointments, so neighbouring attempts overlap
+    private static final int CANDIDATE_STARTS = 32;
+    // At most every other candidate start can be booked
+    private static final int MAX_BOOKINGS = CANDIDATE_STARTS / 2;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AppointmentScheduleIndex scheduleIndex;
+
+    @Autowired
+    private AppointmentBookingLocks bookingLocks;
+
+    private final List<Patient> patients = new ArrayList<>();
+    private User doctor;
+    private LocalDate day;
+
+    @BeforeEach
+    void createDoctorAndPatients() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        doctor = userRepository.save(User.builder()
+                .username("stress-" + run)
+                .email("stress-" + run + "@example.com")
+                .password("not-used")
+                .firstName("Stress")
+                .lastName("Test")
+                .role(Role.DOCTOR)
+                .build());
+        // One patient per attempt, so only the doctor's calendar is contended
+        for (int i = 0; i < THREADS * ATTEMPTS_PER_THREAD; i++) {
+            patients.add(patientRepository.save(Patient.builder()
+                    .firstName("Patient" + i)
+                    .lastName("Stress")
+                    .dateOfBirth(LocalDate.of(1980, 1, 1))
+                    .gender("OTHER")
+                    .address("Test street " + i)
+                    .phoneNumber("stress-" + run + "-" + i)
+                    .build()));
+        }
+        day = LocalDate.now().plusDays(30);
+    }
+
+    @AfterEach
+    void cleanUp() throws InterruptedException {
+        appointmentRepository.deleteAll(appointmentRepository.findByDoctorIdAndStartTimeRangeWithDetails(
+                doctor.getId(), day.atStartOfDay(), day.plusDays(1).atStartOfDay()));
+        patientRepository.deleteAll(patients);
+        patients.clear();
+        // Booking notifications are written asynchronously; wait for them before removing the doctor
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (meterRegistry.get("notifications.dispatch.queue.depth").gauge().value() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        Thread.sleep(500);
+        jdbcTemplate.update("DELETE FROM notifications WHERE user_id = ?", doctor.getId());
+        userRepository.deleteById(doctor.getId());
+    }
+
+    /**
+     * Whether this run is expected to use the distributed lock and database overlap checks.
+     */
+    boolean distributed() {
+        return false;
+    }
+
+    @Test
+    void concurrentBookingsNeverDoubleBookADoctor(TestReporter reporter) throws Exception {
+        assertEquals(distributed(), bookingLocks.isDistributed(), "booking lock mode");
+        assertTrue(scheduleIndex.isReady(), "schedule index loaded");
+        Timer lockWait = meterRegistry.get("appointments.booking.lock.wait").timer();
+        long lockWaitsBefore = lockWait.count();
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch startGate = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(pool.submit(() -> {
+                startGate.await();
+                for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                    LocalDateTime start = day.atTime(8, 0)
+                            .plusMinutes(15L * ThreadLocalRandom.current().nextInt(CANDIDATE_STARTS));
+                    AppointmentDTO request = AppointmentDTO.builder()
+                            .doctorId(doctor.getId())
+                            .patientId(patients.get(thread * ATTEMPTS_PER_THREAD + attempt).getId())
+                            .startTime(start)
+                            .endTime(start.plusMinutes(30))
+                            .room("Stress room")
+                            .build();
+                    try {
+                        appointmentService.createAppointment(request);
+                        booked.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet(); // Slot already taken
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long start = System.nanoTime();
+        startGate.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        List<Appointment> scheduled = appointmentRepository.findByDoctorIdAndStartTimeRangeWithDetails(
+                doctor.getId(), day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        for (int i = 1; i < scheduled.size(); i++) {
+            Appointment previous = scheduled.get(i - 1);
+            Appointment current = scheduled.get(i);
+            assertFalse(current.getStartTime().isBefore(previous.getEndTime()),
+                    "appointments " + previous.getId() + " and " + current.getId() + " overlap");
+        }
+        assertEquals(booked.get(), scheduled.size(), "every successful booking was stored");
+        assertTrue(booked.get() > 0, "some bookings succeeded");
+        assertTrue(booked.get() <= MAX_BOOKINGS, booked.get() + " bookings fit in a day of " + MAX_BOOKINGS + " slots");
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD, booked.get() + rejected.get(), "every attempt was booked or rejected");
+        // The index is kept current in both modes; it must know every stored booking
+        for (Appointment appointment : scheduled) {
+            assertTrue(scheduleIndex.hasOverlap(doctor.getId(), appointment.getStartTime(), appointment.getEndTime(), null),
+                    "appointment " + appointment.getId() + " is in the schedule index");
+        }
+        // Every attempt, booked or rejected, waited for the booking locks exactly once
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD, lockWait.count() - lockWaitsBefore, "lock waits recorded");
+
+        reporter.publishEntry(Map.of(
+                "mode", distributed() ? "distributed lock" : "schedule index",
+                "attempts", String.valueOf(THREADS * ATTEMPTS_PER_THREAD),
+                "booked", String.valueOf(booked.get()),
+                "rejected", String.valueOf(rejected.get()),
+                "elapsedMillis", String.valueOf(TimeUnit.NANOSECONDS.toMillis(elapsed)),
+                "attemptsPerSecond", String.format("%.0f", (booked.get() + rejected.get()) / (elapsed / 1e9)),
+                "lockWaitMeanMillis", String.format("%.2f", lockWait.mean(TimeUnit.MILLISECONDS)),
+                "lockWaitMaxMillis", String.format("%.2f", lockWait.max(TimeUnit.MILLISECONDS))));
+    }
+}
@@ -0,0 +1,16 @@
+package com.clinicapp.backend.service.core;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * {@link AppointmentBookingConcurrencyTest} with the distributed advisory lock enabled, so overlap
+ * checks go to the database as they do when several nodes serve bookings.
+ */
+@SpringBootTest(properties = "application.appointments.booking.distributed-lock=true")
+class DistributedAppointmentBookingConcurrencyTest extends AppointmentBookingConcurrencyTest {
+
+    @Override
+    boolean distributed() {
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+-- Benchmark: DATE(start_time) = :day versus the half-open [dayStart, nextDayStart) range
+-- used by AppointmentRepository. Run against a scratch database with the schema created
+-- by the application (ddl-auto=update), e.g.
+--
+--   psql -d clinic_bench -f appointment-day-range.sql
+--
+-- It loads one million appointments spread over ~3 years for 50 doctors and 20,000 patients,
+-- then prints the plans. The DATE() forms fall back to a sequential scan of "appointment";
+-- the range forms use idx_appointment_*_start_time index scans.
+
+\timing on
+
+BEGIN;
+
+INSERT INTO _user (username, password, email, first_name, last_name, role)
+SELECT 'bench_doctor_' || g, 'x', 'bench_doctor_' || g || '@bench.local', 'Doc', 'Bench' || g, 'DOCTOR'
+FROM generate_series(1, 50) AS g;
+
+INSERT INTO patient (first_name, last_name, date_of_birth, gender, address, phone_number, email, created_at, updated_at)
+SELECT 'Pat', 'Bench' || g, DATE '1980-01-01' + (g % 15000), 'OTHER', 'Bench street ' || g,
+       'bench-' || g, 'bench_patient_' || g || '@bench.local', now(), now()
+FROM generate_series(1, 20000) AS g;
+
+-- Appointment ids come from the application's appointment_seq; the column has no default
+INSERT INTO appointment (id, patient_id, doctor_id, start_time, end_time, room, status, created_at, updated_at)
+SELECT nextval('appointment_seq'), p.id, d.id, s.start_time, s.start_time + INTERVAL '30 minutes', 'R1',
+       (ARRAY['SCHEDULED', 'COMPLETED', 'CANCELLED', 'NO_SHOW'])[1 + g % 4], now(), now()
+FROM generate_series(1, 1000000) AS g
+CROSS JOIN LATERAL (SELECT TIMESTAMP '2024-01-01 08:00' + (g * INTERVAL '90 seconds') AS start_time) s
+JOIN (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM _user WHERE username LIKE 'bench_doctor_%') d
+  ON d.rn = 1 + g % 50
+JOIN (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM patient WHERE phone_number LIKE 'bench-%') p
+  ON p.rn = 1 + g % 20000;
+
+COMMIT;
+
+ANALYZE appointment;
+
+-- countByStartTimeRange (previously countByAppointmentDate)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM appointment WHERE DATE(start_time) = DATE '2025-06-02';
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM appointment
+WHERE start_time >= TIMESTAMP '2025-06-02 00:00' AND start_time < TIMESTAMP '2025-06-03 00:00';
+
+-- countByDoctorIdAndStartTimeRange / findByDoctorIdAndStartTimeRangeWithDetails
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM appointment a
+WHERE a.doctor_id = (SELECT min(id) FROM _user WHERE username LIKE 'bench_doctor_%')
+  AND DATE(a.start_time) = DATE '2025-06-02';
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM appointment a
+WHERE a.doctor_id = (SELECT min(id) FROM _user WHERE username LIKE 'bench_doctor_%')
+  AND a.start_time >= TIMESTAMP '2025-06-02 00:00' AND a.start_time < TIMESTAMP '2025-06-03 00:00';
+
+-- existsOtherAppointmentForPatientInRange
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) > 0 FROM appointment a
+WHERE a.patient_id = (SELECT min(id) FROM patient WHERE phone_number LIKE 'bench-%')
+  AND a.status = 'SCHEDULED' AND DATE(a.start_time) = DATE '2025-06-02';
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) > 0 FROM appointment a
+WHERE a.patient_id = (SELECT min(id) FROM patient WHERE phone_number LIKE 'bench-%')
+  AND a.status = 'SCHEDULED'
+  AND a.start_time >= TIMESTAMP '2025-06-02 00:00' AND a.start_time < TIMESTAMP '2025-06-03 00:00';
+
+-- Clean up the benchmark rows
+BEGIN;
+DELETE FROM appointment WHERE room = 'R1' AND doctor_id IN (SELECT id FROM _user WHERE username LIKE 'bench_doctor_%');
+DELETE FROM patient WHERE phone_number LIKE 'bench-%';
+DELETE FROM _user WHERE username LIKE 'bench_doctor_%';
+COMMIT;
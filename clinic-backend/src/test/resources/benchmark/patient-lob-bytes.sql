@@ -0,0 +1,89 @@
+-- Benchmark: bytes read per dashboard appointment listing with and without the patient
+-- clinical text columns (medical_history, allergies), which are now lazily loaded.
+-- Run against a scratch database with the schema created by the application, e.g.
+--
+--   psql -d clinic_bench -f patient-lob-bytes.sql
+--
+-- It loads 2,000 patients with ~4 KB of medical history and ~500 bytes of allergies each and
+-- 400 appointments on one day, then reports the row bytes the eager and lazy forms of
+-- findByStartTimeRangeWithDetails return, followed by their plans. The last report follows the
+-- dashboard "today" endpoints end to end: returning the entities made Jackson touch every
+-- patient's clinical text, one extra select per patient, whereas the AppointmentDTOs they now
+-- return stop at the lazy join.
+
+\timing on
+
+BEGIN;
+
+INSERT INTO _user (username, password, email, first_name, last_name, role)
+SELECT 'bench_doctor_' || g, 'x', 'bench_doctor_' || g || '@bench.local', 'Doc', 'Bench' || g, 'DOCTOR'
+FROM generate_series(1, 10) AS g;
+
+INSERT INTO patient (first_name, last_name, date_of_birth, gender, address, phone_number, email,
+                     medical_history, allergies, created_at, updated_at)
+SELECT 'Pat', 'Bench' || g, DATE '1980-01-01' + (g % 15000), 'OTHER', 'Bench street ' || g,
+       'bench-' || g, 'bench_patient_' || g || '@bench.local',
+       -- Concatenated distinct hashes, so TOAST compression doesn't hide the size
+       (SELECT string_agg(md5(g || '-' || i), '') FROM generate_series(1, 128) AS i),
+       (SELECT string_agg(md5(i || '-' || g), '') FROM generate_series(1, 16) AS i), now(), now()
+FROM generate_series(1, 2000) AS g;
+
+-- Appointment ids come from the application's appointment_seq; the column has no default
+INSERT INTO appointment (id, patient_id, doctor_id, start_time, end_time, room, status, created_at, updated_at)
+SELECT nextval('appointment_seq'), p.id, d.id, TIMESTAMP '2025-06-02 08:00' + (g * INTERVAL '90 seconds'),
+       TIMESTAMP '2025-06-02 08:30' + (g * INTERVAL '90 seconds'), 'R1', 'SCHEDULED', now(), now()
+FROM generate_series(1, 400) AS g
+JOIN (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM _user WHERE username LIKE 'bench_doctor_%') d
+  ON d.rn = 1 + g % 10
+JOIN (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM patient WHERE phone_number LIKE 'bench-%') p
+  ON p.rn = 1 + (g * 5) % 2000;
+
+COMMIT;
+
+ANALYZE patient;
+ANALYZE appointment;
+
+-- Eager: every patient column, as before the change
+SELECT 'eager' AS variant, count(*) AS rows, pg_size_pretty(sum(pg_column_size(r))) AS bytes
+FROM (SELECT a.*, p.* FROM appointment a JOIN patient p ON p.id = a.patient_id
+      WHERE a.start_time >= TIMESTAMP '2025-06-02 00:00' AND a.start_time < TIMESTAMP '2025-06-03 00:00') r;
+
+-- Lazy: the patient columns Hibernate now selects
+SELECT 'lazy' AS variant, count(*) AS rows, pg_size_pretty(sum(pg_column_size(r))) AS bytes
+FROM (SELECT a.*, p.id, p.first_name, p.last_name, p.date_of_birth, p.gender, p.address,
+             p.phone_number, p.email, p.created_at, p.updated_at
+      FROM appointment a JOIN patient p ON p.id = a.patient_id
+      WHERE a.start_time >= TIMESTAMP '2025-06-02 00:00' AND a.start_time < TIMESTAMP '2025-06-03 00:00') r;
+
+-- Endpoint path: the lazy join, plus, when entities were serialized, one clinical-group select
+-- (SELECT medical_history, allergies FROM patient WHERE id = ?) per distinct patient
+WITH day AS (
+    SELECT a.*, p.id AS pid, p.first_name, p.last_name, p.date_of_birth, p.gender, p.address,
+           p.phone_number, p.email, p.created_at AS p_created_at, p.updated_at AS p_updated_at
+    FROM appointment a JOIN patient p ON p.id = a.patient_id
+    WHERE a.start_time >= TIMESTAMP '2025-06-02 00:00' AND a.start_time < TIMESTAMP '2025-06-03 00:00'
+), clinical AS (
+    SELECT p.medical_history, p.allergies FROM patient p WHERE p.id IN (SELECT patient_id FROM day)
+)
+SELECT variant, selects, pg_size_pretty(bytes) AS bytes
+FROM (SELECT 'entities (before)' AS variant,
+             1 + (SELECT count(*) FROM clinical) AS selects,
+             (SELECT sum(pg_column_size(d)) FROM day d) + (SELECT sum(pg_column_size(c)) FROM clinical c) AS bytes
+      UNION ALL
+      SELECT 'dtos (now)', 1, (SELECT sum(pg_column_size(d)) FROM day d)) v;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT a.*, p.* FROM appointment a JOIN patient p ON p.id = a.patient_id
+WHERE a.start_time >= TIMESTAMP '2025-06-02 00:00' AND a.start_time < TIMESTAMP '2025-06-03 00:00';
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT a.*, p.id, p.first_name, p.last_name, p.date_of_birth, p.gender, p.address,
+       p.phone_number, p.email, p.created_at, p.updated_at
+FROM appointment a JOIN patient p ON p.id = a.patient_id
+WHERE a.start_time >= TIMESTAMP '2025-06-02 00:00' AND a.start_time < TIMESTAMP '2025-06-03 00:00';
+
+-- Clean up the benchmark rows
+BEGIN;
+DELETE FROM appointment WHERE room = 'R1' AND doctor_id IN (SELECT id FROM _user WHERE username LIKE 'bench_doctor_%');
+DELETE FROM patient WHERE phone_number LIKE 'bench-%';
+DELETE FROM _user WHERE username LIKE 'bench_doctor_%';
+COMMIT;
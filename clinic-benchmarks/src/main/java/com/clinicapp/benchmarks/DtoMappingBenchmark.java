@@ -0,0 +1,80 @@
+package com.clinicapp.benchmarks;
+
+import com.clinicapp.backend.dto.core.AppointmentDTO;
+import com.clinicapp.backend.dto.core.InvoiceDTO;
+import com.clinicapp.backend.dto.core.PatientDTO;
+import com.clinicapp.backend.model.core.Appointment;
+import com.clinicapp.backend.model.core.Invoice;
+import com.clinicapp.backend.model.core.Patient;
+import com.clinicapp.backend.model.security.User;
+import com.clinicapp.backend.service.core.AppointmentService;
+import com.clinicapp.backend.service.core.InvoiceService;
+import com.clinicapp.backend.service.core.PatientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The entity to DTO mapping behind every read endpoint of appointments, invoices and patients.
+ * <p>
+ * {@code mapToDTO} is private in each service, so it is called through a method handle held in a
+ * static final field, which the JIT inlines like a direct call. The services are built without
+ * their collaborators since mapping only reads the entity passed in.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark {
+
+    private static final MethodHandle APPOINTMENT_MAPPER = Fixtures.mapToDTO(AppointmentService.class, Appointment.class, AppointmentDTO.class);
+    private static final MethodHandle INVOICE_MAPPER = Fixtures.mapToDTO(InvoiceService.class, Invoice.class, InvoiceDTO.class);
+    private static final MethodHandle PATIENT_MAPPER = Fixtures.mapToDTO(PatientService.class, Patient.class, PatientDTO.class);
+
+    private AppointmentService appointmentService;
+    private InvoiceService invoiceService;
+    private PatientService patientService;
+
+    private Patient patient;
+    private Appointment appointment;
+    private Invoice invoice;
+
+    @Setup
+    public void setUp() {
+        appointmentService = new AppointmentService(null, null, null, null, null, null, null, null);
+        invoiceService = new InvoiceService(null, null, null, null);
+        patientService = new PatientService(null, null, null);
+
+        User doctor = Fixtures.doctor();
+        patient = Fixtures.patient(42L);
+        appointment = Fixtures.appointment(1001L, patient, doctor);
+        invoice = Fixtures.invoice(501L, patient, appointment);
+    }
+
+    @Benchmark
+    public AppointmentDTO appointment() throws Throwable {
+        return (AppointmentDTO) APPOINTMENT_MAPPER.invokeExact(appointmentService, appointment);
+    }
+
+    @Benchmark
+    public InvoiceDTO invoice() throws Throwable {
+        return (InvoiceDTO) INVOICE_MAPPER.invokeExact(invoiceService, invoice);
+    }
+
+    @Benchmark
+    public PatientDTO patient() throws Throwable {
+        return (PatientDTO) PATIENT_MAPPER.invokeExact(patientService, patient);
+    }
+}
@@ -0,0 +1,170 @@
+package com.clinicapp.benchmarks;
+
+import com.clinicapp.backend.model.core.Appointment;
+import com.clinicapp.backend.model.core.AppointmentStatus;
+import com.clinicapp.backend.model.core.Invoice;
+import com.clinicapp.backend.model.core.InvoiceStatus;
+import com.clinicapp.backend.model.core.Patient;
+import com.clinicapp.backend.model.core.Prescription;
+import com.clinicapp.backend.model.security.Role;
+import com.clinicapp.backend.model.security.User;
+import com.clinicapp.backend.service.security.JwtService;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Fixed input data for the benchmarks. Everything is built from constants, so every run (and every
+ * fork) measures exactly the same work and results stay comparable between runs.
+ */
+final class Fixtures {
+
+    // Same shape as application.security.jwt.* in the backend's application.properties
+    static final String JWT_SECRET =
+            "placeholderSecretKeyThatIsVeryLongAndSecure1234567890ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    static final long JWT_EXPIRATION_MS = 86_400_000L;
+    static final long JWT_REFRESH_EXPIRATION_MS = 604_800_000L;
+
+    static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 9, 30);
+    static final LocalDate TODAY = LocalDate.of(2024, 3, 15);
+
+    private static final String LOREM = "Take with food and a full glass of water. Avoid alcohol while on this medication. "
+            + "Stop and contact the clinic if a rash, swelling or shortness of breath appears. ";
+
+    private Fixtures() {
+    }
+
+    static User doctor() {
+        return User.builder()
+                .id(7L)
+                .username("dr.house")
+                .email("gregory.house@clinic.example")
+                .password("not-used")
+                .firstName("Gregory")
+                .lastName("House")
+                .role(Role.DOCTOR)
+                .build();
+    }
+
+    static Patient patient(long id) {
+        return Patient.builder()
+                .id(id)
+                .firstName("Patient" + id)
+                .lastName("Benchmark")
+                .dateOfBirth(LocalDate.of(1980, 1, 1).plusDays(id))
+                .gender("OTHER")
+                .address(id + " Benchmark Street, Springfield")
+                .phoneNumber("+1-555-" + String.format("%04d", id % 10_000))
+                .email("patient" + id + "@example.com")
+                .medicalHistory("Hypertension since 2015. Appendectomy in 2002.")
+                .allergies("Penicillin")
+                .createdAt(CREATED_AT)
+                .updatedAt(CREATED_AT)
+                .build();
+    }
+
+    static Appointment appointment(long id, Patient patient, User doctor) {
+        LocalDateTime start = TODAY.atTime(8, 0).plusMinutes(30 * (id % 20));
+        return Appointment.builder()
+                .id(id)
+                .patient(patient)
+                .doctor(doctor)
+                .startTime(start)
+                .endTime(start.plusMinutes(30))
+                .room("Room " + (1 + id % 5))
+                .status(AppointmentStatus.SCHEDULED)
+                .notes("Follow-up visit")
+                .createdAt(CREATED_AT)
+                .updatedAt(CREATED_AT)
+                .version(0L)
+                .build();
+    }
+
+    static Invoice invoice(long id, Patient patient, Appointment appointment) {
+        return Invoice.builder()
+                .id(id)
+                .patient(patient)
+                .appointment(appointment)
+                .issueDate(TODAY)
+                .dueDate(TODAY.plusDays(30))
+                .totalAmount(new BigDecimal("125.50"))
+                .status(InvoiceStatus.SENT)
+                .notes("Consultation and blood panel")
+                .createdAt(CREATED_AT)
+                .updatedAt(CREATED_AT)
+                .build();
+    }
+
+    /**
+     * A prescription whose free-text instructions are {@code instructionsLength} characters long.
+     */
+    static Prescription prescription(long id, Patient patient, User doctor, int instructionsLength) {
+        return Prescription.builder()
+                .id(id)
+                .patient(patient)
+                .doctor(doctor)
+                .medicationName("Amoxicillin")
+                .dosage("500mg")
+                .frequency("Three times daily")
+                .instructions(instructionsLength > 0 ? text(instructionsLength) : null)
+                .prescriptionDate(TODAY)
+                .endDate(TODAY.plusDays(10))
+                .createdAt(CREATED_AT)
+                .updatedAt(CREATED_AT)
+                .build();
+    }
+
+    static String text(int length) {
+        StringBuilder text = new StringBuilder(length + LOREM.length());
+        while (text.length() < length) {
+            text.append(LOREM);
+        }
+        return text.substring(0, length);
+    }
+
+    /**
+     * A {@link JwtService} configured as Spring would, without starting an application context.
+     */
+    static JwtService jwtService() {
+        JwtService jwtService = new JwtService();
+        setField(jwtService, "secretKeyString", JWT_SECRET);
+        setField(jwtService, "jwtExpiration", JWT_EXPIRATION_MS);
+        setField(jwtService, "refreshExpiration", JWT_REFRESH_EXPIRATION_MS);
+        try {
+            Method init = JwtService.class.getDeclaredMethod("init"); // @PostConstruct
+            init.setAccessible(true);
+            init.invoke(jwtService);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not initialize JwtService", e);
+        }
+        return jwtService;
+    }
+
+    /**
+     * A handle on a service's private {@code mapToDTO(entity)} method, of type {@code (service, entity)dto}.
+     */
+    static MethodHandle mapToDTO(Class<?> service, Class<?> entity, Class<?> dto) {
+        try {
+            return MethodHandles.privateLookupIn(service, MethodHandles.lookup())
+                    .findVirtual(service, "mapToDTO", MethodType.methodType(dto, entity));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No mapToDTO(" + entity.getSimpleName() + ") in " + service.getSimpleName(), e);
+        }
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not set " + target.getClass().getSimpleName() + "." + name, e);
+        }
+    }
+}
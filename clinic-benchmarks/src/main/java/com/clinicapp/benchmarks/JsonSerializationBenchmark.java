@@ -0,0 +1,125 @@
+package com.clinicapp.benchmarks;
+
+import com.clinicapp.backend.dto.core.AppointmentDTO;
+import com.clinicapp.backend.dto.core.InvoiceDTO;
+import com.clinicapp.backend.dto.core.PatientDTO;
+import com.clinicapp.backend.model.core.Appointment;
+import com.clinicapp.backend.model.core.Invoice;
+import com.clinicapp.backend.model.core.Patient;
+import com.clinicapp.backend.model.security.User;
+import com.clinicapp.backend.service.core.AppointmentService;
+import com.clinicapp.backend.service.core.InvoiceService;
+import com.clinicapp.backend.service.core.PatientService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the response DTOs, as single objects and as lists of appointments.
+ * <p>
+ * The {@link ObjectMapper} is built by {@link Jackson2ObjectMapperBuilder} with its defaults, as
+ * Spring Boot builds the one used for HTTP responses (Java time module, ISO dates). The DTOs come
+ * from the services' own {@code mapToDTO}, so they carry exactly the fields the API returns.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JsonSerializationBenchmark {
+
+    private static final MethodHandle APPOINTMENT_MAPPER = Fixtures.mapToDTO(AppointmentService.class, Appointment.class, AppointmentDTO.class);
+    private static final MethodHandle INVOICE_MAPPER = Fixtures.mapToDTO(InvoiceService.class, Invoice.class, InvoiceDTO.class);
+    private static final MethodHandle PATIENT_MAPPER = Fixtures.mapToDTO(PatientService.class, Patient.class, PatientDTO.class);
+
+    @State(Scope.Benchmark)
+    public static class Mapper {
+        ObjectWriter writer;
+
+        @Setup
+        public void setUp() {
+            ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+            writer = objectMapper.writer();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SingleInput {
+        AppointmentDTO appointment;
+        InvoiceDTO invoice;
+        PatientDTO patient;
+
+        @Setup
+        public void setUp() throws Throwable {
+            User doctor = Fixtures.doctor();
+            Patient patientEntity = Fixtures.patient(42L);
+            Appointment appointmentEntity = Fixtures.appointment(1001L, patientEntity, doctor);
+            appointment = (AppointmentDTO) APPOINTMENT_MAPPER.invoke(appointmentService(), appointmentEntity);
+            invoice = (InvoiceDTO) INVOICE_MAPPER.invoke(new InvoiceService(null, null, null, null),
+                    Fixtures.invoice(501L, patientEntity, appointmentEntity));
+            patient = (PatientDTO) PATIENT_MAPPER.invoke(new PatientService(null, null, null), patientEntity);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ListInput {
+        // One row, a page, and a busy clinic's full week
+        @Param({"1", "50", "500"})
+        int size;
+
+        List<AppointmentDTO> appointments;
+
+        @Setup
+        public void setUp() throws Throwable {
+            AppointmentService appointmentService = appointmentService();
+            User doctor = Fixtures.doctor();
+            appointments = new ArrayList<>(size);
+            for (long i = 0; i < size; i++) {
+                Appointment entity = Fixtures.appointment(2000L + i, Fixtures.patient(100L + i), doctor);
+                appointments.add((AppointmentDTO) APPOINTMENT_MAPPER.invoke(appointmentService, entity));
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] appointment(Mapper mapper, SingleInput input) throws JsonProcessingException {
+        return mapper.writer.writeValueAsBytes(input.appointment);
+    }
+
+    @Benchmark
+    public byte[] invoice(Mapper mapper, SingleInput input) throws JsonProcessingException {
+        return mapper.writer.writeValueAsBytes(input.invoice);
+    }
+
+    @Benchmark
+    public byte[] patient(Mapper mapper, SingleInput input) throws JsonProcessingException {
+        return mapper.writer.writeValueAsBytes(input.patient);
+    }
+
+    @Benchmark
+    public byte[] appointmentList(Mapper mapper, ListInput input) throws JsonProcessingException {
+        return mapper.writer.writeValueAsBytes(input.appointments);
+    }
+
+    // Mapping only reads the entity passed in, so no collaborators are needed
+    private static AppointmentService appointmentService() {
+        return new AppointmentService(null, null, null, null, null, null, null, null);
+    }
+}
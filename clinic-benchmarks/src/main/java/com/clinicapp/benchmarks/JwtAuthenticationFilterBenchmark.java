@@ -0,0 +1,98 @@
+package com.clinicapp.benchmarks;
+
+import com.clinicapp.backend.config.JwtAuthenticationFilter;
+import com.clinicapp.backend.model.security.User;
+import com.clinicapp.backend.service.security.AuthenticatedPrincipalCache;
+import com.clinicapp.backend.service.security.JwtService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through {@link JwtAuthenticationFilter}, with the principal cache
+ * enabled and disabled.
+ * <p>
+ * With the cache on, every request after the first resolves its principal from the cache. With it
+ * off, each request parses and verifies the token and looks the user up. The
+ * {@link UserDetailsService} here is a stub that returns a fixed user, so the database round-trip
+ * a real lookup costs is not included and the real gap is larger.
+ * {@code doFilterInternal} is protected, so it is called through a method handle. The chain
+ * records the authentication and then clears the security context, as the end of a request would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final MethodHandle DO_FILTER_INTERNAL = doFilterInternal();
+
+    @Param({"true", "false"})
+    boolean cacheEnabled;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+    private Authentication authenticated;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = Fixtures.jwtService();
+        User user = Fixtures.doctor();
+        UserDetailsService userDetailsService = username -> user;
+        AuthenticatedPrincipalCache principalCache = new AuthenticatedPrincipalCache(cacheEnabled, 10_000, 300);
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, principalCache);
+
+        request = new MockHttpServletRequest("GET", "/api/v1/appointments");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateToken(user));
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> {
+            authenticated = SecurityContextHolder.getContext().getAuthentication();
+            SecurityContextHolder.clearContext();
+        };
+    }
+
+    @Benchmark
+    public Authentication filter() throws Throwable {
+        authenticated = null;
+        DO_FILTER_INTERNAL.invokeExact(filter, (HttpServletRequest) request, (HttpServletResponse) response, chain);
+        if (authenticated == null) {
+            throw new IllegalStateException("Request was not authenticated");
+        }
+        return authenticated;
+    }
+
+    private static MethodHandle doFilterInternal() {
+        try {
+            return MethodHandles.privateLookupIn(JwtAuthenticationFilter.class, MethodHandles.lookup())
+                    .findVirtual(JwtAuthenticationFilter.class, "doFilterInternal", MethodType.methodType(
+                            void.class, HttpServletRequest.class, HttpServletResponse.class, FilterChain.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No doFilterInternal in JwtAuthenticationFilter", e);
+        }
+    }
+}
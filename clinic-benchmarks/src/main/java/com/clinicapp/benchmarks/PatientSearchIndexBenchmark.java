@@ -0,0 +1,114 @@
+package com.clinicapp.benchmarks;
+
+import com.clinicapp.backend.dto.core.PatientSummaryDTO;
+import com.clinicapp.backend.service.core.PatientSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-20 patient searches against an index of synthetic patients.
+ * <p>
+ * The query kinds are a last-name prefix as typed into the search box ({@code prefix}), a full
+ * name ({@code name}), a last name with two adjacent letters swapped ({@code typo}) and the
+ * trailing digits of a phone number ({@code phone}). Each kind cycles through 1024 queries taken
+ * from the indexed patients, so a run doesn't keep hitting the same posting lists.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class PatientSearchIndexBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+            "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+            "Youssef", "Fatima", "Mohamed", "Amina", "Omar", "Khadija", "Ali", "Salma", "Hamza", "Imane",
+            "Pierre", "Camille", "Louis", "Chloe", "Lucas", "Manon", "Hugo", "Lea", "Jules", "Ines"};
+    // Last names are built from three of these, giving 27,000 distinct names
+    private static final String[] SYLLABLES = {
+            "ber", "cal", "dor", "fen", "gar", "hal", "ken", "lor", "mar", "nel",
+            "or", "pel", "quin", "ros", "sal", "tor", "ul", "val", "win", "zan",
+            "ben", "chi", "dal", "el", "fa", "go", "ha", "ib", "ja", "ko"};
+    private static final int QUERIES = 1024;
+
+    @Param({"1000000"})
+    int patients;
+
+    @Param({"prefix", "name", "typo", "phone"})
+    String queryKind;
+
+    private PatientSearchIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        // Only search() and index() are used, neither of which touches the repository
+        index = new PatientSearchIndex(null);
+        PatientSummaryDTO[] indexed = new PatientSummaryDTO[patients];
+        for (int i = 0; i < patients; i++) {
+            indexed[i] = patient(i + 1L, random);
+            index.index(indexed[i]);
+        }
+
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            PatientSummaryDTO patient = indexed[random.nextInt(patients)];
+            String lastName = patient.getLastName();
+            queries[i] = switch (queryKind) {
+                case "prefix" -> lastName.substring(0, 4);
+                case "name" -> patient.getFirstName() + " " + lastName;
+                case "typo" -> swapAdjacent(lastName, 1 + random.nextInt(lastName.length() - 2));
+                case "phone" -> patient.getPhoneNumber().substring(patient.getPhoneNumber().length() - 6);
+                default -> throw new IllegalArgumentException("Unknown query kind: " + queryKind);
+            };
+        }
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        String query = queries[next];
+        next = (next + 1) & (QUERIES - 1);
+        return index.search(query, 20);
+    }
+
+    private static PatientSummaryDTO patient(long id, Random random) {
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = capitalize(SYLLABLES[random.nextInt(SYLLABLES.length)]
+                + SYLLABLES[random.nextInt(SYLLABLES.length)]
+                + SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        String phone = String.format("+1 (%03d) %03d-%04d", 200 + random.nextInt(800), random.nextInt(1000), random.nextInt(10_000));
+        String email = (firstName + "." + lastName + id).toLowerCase() + "@example.com";
+        return new PatientSummaryDTO(id, firstName, lastName, LocalDate.of(1950, 1, 1).plusDays(random.nextInt(25_000)),
+                random.nextBoolean() ? "FEMALE" : "MALE", phone, email);
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static String swapAdjacent(String word, int at) {
+        char[] chars = word.toCharArray();
+        char swapped = chars[at];
+        chars[at] = chars[at + 1];
+        chars[at + 1] = swapped;
+        return new String(chars);
+    }
+}
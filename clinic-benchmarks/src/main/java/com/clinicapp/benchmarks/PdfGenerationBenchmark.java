@@ -0,0 +1,96 @@
+package com.clinicapp.benchmarks;
+
+import com.clinicapp.backend.model.core.Invoice;
+import com.clinicapp.backend.model.core.Patient;
+import com.clinicapp.backend.model.core.Prescription;
+import com.clinicapp.backend.model.security.User;
+import com.clinicapp.backend.service.utils.PdfGenerationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The prescription and invoice PDF downloads, in documents per second. Templates are compiled once
+ * in the service's constructor, so this measures rendering only, as in the running application.
+ * <p>
+ * The {@code *Baseline} benchmarks render the same documents with {@link LegacyPdfRenderer}, the
+ * element-by-element generators the templates replaced, for a before/after comparison. The
+ * baseline doesn't wrap long instructions, so at 6000 characters it writes one page where the
+ * templates write two.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class PdfGenerationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Renderers {
+        PdfGenerationService pdfGenerationService;
+        LegacyPdfRenderer legacyRenderer;
+
+        @Setup
+        public void setUp() {
+            pdfGenerationService = new PdfGenerationService();
+            legacyRenderer = new LegacyPdfRenderer();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PrescriptionInput {
+        // No instructions, a typical paragraph, and enough text to wrap onto a second page
+        @Param({"0", "400", "6000"})
+        int instructionsLength;
+
+        Prescription prescription;
+
+        @Setup
+        public void setUp() {
+            prescription = Fixtures.prescription(301L, Fixtures.patient(42L), Fixtures.doctor(), instructionsLength);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class InvoiceInput {
+        Invoice invoice;
+
+        @Setup
+        public void setUp() {
+            User doctor = Fixtures.doctor();
+            Patient patient = Fixtures.patient(42L);
+            invoice = Fixtures.invoice(501L, patient, Fixtures.appointment(1001L, patient, doctor));
+        }
+    }
+
+    @Benchmark
+    public byte[] prescriptionPdf(Renderers renderers, PrescriptionInput input) throws IOException {
+        return renderers.pdfGenerationService.generatePrescriptionPdf(input.prescription);
+    }
+
+    @Benchmark
+    public byte[] prescriptionPdfBaseline(Renderers renderers, PrescriptionInput input) throws IOException {
+        return renderers.legacyRenderer.generatePrescriptionPdf(input.prescription);
+    }
+
+    @Benchmark
+    public byte[] invoicePdf(Renderers renderers, InvoiceInput input) throws IOException {
+        return renderers.pdfGenerationService.generateInvoicePdf(input.invoice);
+    }
+
+    @Benchmark
+    public byte[] invoicePdfBaseline(Renderers renderers, InvoiceInput input) throws IOException {
+        return renderers.legacyRenderer.generateInvoicePdf(input.invoice);
+    }
+}
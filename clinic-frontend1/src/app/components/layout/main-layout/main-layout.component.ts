@@ -21,6 +21,7 @@ export class MainLayoutComponent implements OnInit, OnDestroy {
   notifications: NotificationDTO[] = [];
   unreadNotificationCount = 0;
   private notificationSubscription: Subscription | null = null;
+  private unreadCountSubscription: Subscription | null = null;
   showNotificationsPanel = false;
   currentPage = 1;
   readonly pageSize = 10;
@@ -40,10 +41,12 @@ export class MainLayoutComponent implements OnInit, OnDestroy {
     this.currentUserRole = this.authService.getCurrentUserRole();
     this.loadAllNotifications();
     this.subscribeToNotificationMessages();
+    this.subscribeToUnreadCount();
   }
 
   ngOnDestroy(): void {
     this.notificationSubscription?.unsubscribe();
+    this.unreadCountSubscription?.unsubscribe();
   }
 
   private loadAllNotifications(page: number = 1): void {
@@ -58,7 +61,9 @@ export class MainLayoutComponent implements OnInit, OnDestroy {
         }
         this.totalNotifications = response.totalElements;
         this.currentPage = page;
-        this.updateUnreadCount();
+        if (page === 1) {
+          this.updateUnreadCount(); // Initial value; the server pushes every change after that
+        }
         this.loading = false;
       },
       error: (error) => {
@@ -90,7 +95,8 @@ export class MainLayoutComponent implements OnInit, OnDestroy {
       this.notificationService.markAsRead(notification.id).subscribe({
         next: () => {
           notification.read = true;
-          this.updateUnreadCount();
+          // Until the server pushes the new count
+          this.unreadNotificationCount = Math.max(0, this.unreadNotificationCount - 1);
         },
         error: (error) => {
           console.error('[MainLayoutComponent] Error marking notification as read:', error);
@@ -106,7 +112,6 @@ export class MainLayoutComponent implements OnInit, OnDestroy {
       next: (notification: NotificationDTO) => {
         console.log('[MainLayoutComponent] Received notification (realtime):', notification);
         this.notifications.unshift(notification);
-        this.unreadNotificationCount++;
         this.totalNotifications++;
         this.showNotificationToast(notification);
       },
@@ -116,6 +121,14 @@ export class MainLayoutComponent implements OnInit, OnDestroy {
     });
   }
 
+  subscribeToUnreadCount(): void {
+    this.unreadCountSubscription?.unsubscribe();
+    // The server pushes the unread count whenever a notification is stored or read, on any tab
+    this.unreadCountSubscription = this.websocketService.unreadCount$.subscribe(count => {
+      this.unreadNotificationCount = count;
+    });
+  }
+
   showNotificationToast(notification: NotificationDTO): void {
     console.log('[MainLayoutComponent] Showing toast for:', notification.title);
     this.toastr.info(notification.message, notification.title || 'New Notification', {
@@ -34,12 +34,14 @@ export class WebsocketService implements OnDestroy {
   private publicChatMessages = new Subject<ChatMessage>();
   private privateChatMessages = new Subject<ChatMessage>();
   private notifications = new Subject<NotificationDTO>(); // Single subject for notifications
+  private unreadCount = new Subject<number>(); // Pushed whenever the unread count changes
 
   // Public observables
   public connectionState$: Observable<typeof this.connectionState.value> = this.connectionState.asObservable();
   public publicChatMessages$: Observable<ChatMessage> = this.publicChatMessages.asObservable();
   public privateChatMessages$: Observable<ChatMessage> = this.privateChatMessages.asObservable();
   public notifications$: Observable<NotificationDTO> = this.notifications.asObservable(); // Single observable for notifications
+  public unreadCount$: Observable<number> = this.unreadCount.asObservable(); // No need to poll /unread/count
 
   constructor(private authService: AuthService) {
     console.log('WebSocket service constructed');
@@ -164,7 +166,12 @@ export class WebsocketService implements OnDestroy {
 
           // Route based on topic
           if (topic.includes('/queue/notifications')) {
-            if (isNotificationDTO(body)) {
+            if (Array.isArray(body)) {
+              // Notifications held while we were offline arrive as one batch
+              body.filter(isNotificationDTO).forEach(notification => subject.next(notification));
+            } else if (body && typeof body.unreadCount === 'number') {
+              this.unreadCount.next(body.unreadCount);
+            } else if (isNotificationDTO(body)) {
               console.log(`[WebsocketService] Emitting NotificationDTO on notifications$`);
               subject.next(body); // Emit NotificationDTO
             } else {